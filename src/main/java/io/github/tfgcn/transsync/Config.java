@@ -52,6 +52,18 @@ public final class Config {
      * The rules for scanning files.
      */
     private List<FileScanRule> rules;
+    /**
+     * The number of files processed concurrently when syncing with paratranz.
+     */
+    private Integer jobs;
+    /**
+     * How long the remote file list is cached, in seconds. 0 disables the cache.
+     */
+    private Integer remoteFilesTtl;
+    /**
+     * The number of files whose translations are fetched ahead of local processing.
+     */
+    private Integer prefetch;
 
     private Config() {
         // for initialization only
@@ -83,6 +95,9 @@ public final class Config {
             config.setProjectId(getEnvAsInt(ENV_PARATRANZ_PROJECT_ID).orElse(DEFAULT_PROJECT_ID));
             config.setHttpLogLevel(getEnv(ENV_HTTP_LOG_LEVEL).orElse(DEFAULT_HTTP_LOG_LEVEL));
             config.setWorkspace(getEnv(ENV_PARATRANZ_WORKSPACE).orElse(DEFAULT_WORKSPACE));
+            config.setJobs(DEFAULT_JOBS);
+            config.setRemoteFilesTtl(DEFAULT_REMOTE_FILES_TTL);
+            config.setPrefetch(DEFAULT_PREFETCH);
 
             config.save();
         } else {
@@ -119,6 +134,15 @@ public final class Config {
         if (newConfig.getRules() != null) {
             this.rules = newConfig.getRules();
         }
+        if (newConfig.getJobs() != null) {
+            this.jobs = newConfig.getJobs();
+        }
+        if (newConfig.getRemoteFilesTtl() != null) {
+            this.remoteFilesTtl = newConfig.getRemoteFilesTtl();
+        }
+        if (newConfig.getPrefetch() != null) {
+            this.prefetch = newConfig.getPrefetch();
+        }
     }
 
     public void save() throws IOException {
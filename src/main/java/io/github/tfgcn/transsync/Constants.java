@@ -17,6 +17,19 @@ public final class Constants {
     public static final String DEFAULT_WORKSPACE = "..";
     public static final String DEFAULT_HTTP_LOG_LEVEL = LoggingInterceptor.Level.NONE.name();
     public static final String CONFIG_FILE = "config.json";
+    public static final int DEFAULT_JOBS = 4;
+    public static final int MAX_JOBS = 32;
+
+    // Workspace data, stored under the workspace folder
+    public static final String WORKSPACE_DATA_DIR = ".transsync";
+    public static final String HASH_MANIFEST_FILE = "hashes.json";
+    public static final String JOURNAL_DIR = "journal";
+    public static final String REMOTE_FILES_CACHE_FILE = "remote-files.json";
+    public static final String DOWNLOAD_STATE_FILE = "download-state.json";
+    public static final String SCAN_CACHE_FILE = "scan-cache.json";
+    public static final String TRANSLATION_STORE_DIR = "strings";
+    public static final int DEFAULT_REMOTE_FILES_TTL = 300;// seconds
+    public static final int DEFAULT_PREFETCH = 4;
 
     // Environments
     public static final String ENV_PARATRANZ_TOKEN = "PARATRANZ_TOKEN";
@@ -46,7 +46,8 @@ public class Main {
                 .addSubcommand(new ProjectInfoCommand())
                 .addSubcommand(new UploadSourceCommand())
                 .addSubcommand(new UploadTranslationsCommand())
-                .addSubcommand(new DownloadTranslationsCommand());
+                .addSubcommand(new DownloadTranslationsCommand())
+                .addSubcommand(new WatchCommand());
         commandLine.setExecutionStrategy(new CommandLine.RunLast());
         System.exit(commandLine.execute(args));
     }
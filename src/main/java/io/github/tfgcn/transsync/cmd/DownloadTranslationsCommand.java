@@ -7,9 +7,11 @@ import io.github.tfgcn.transsync.paratranz.api.FilesApi;
 import io.github.tfgcn.transsync.paratranz.api.ProjectsApi;
 import io.github.tfgcn.transsync.paratranz.model.projects.ProjectsDto;
 import io.github.tfgcn.transsync.service.SyncService;
+import io.github.tfgcn.transsync.service.model.DownloadTranslationResult;
 import lombok.extern.slf4j.Slf4j;
 import picocli.CommandLine;
 
+import java.util.List;
 import java.util.concurrent.Callable;
 
 /**
@@ -21,6 +23,12 @@ import java.util.concurrent.Callable;
 @CommandLine.Command(name = "download-translation", mixinStandardHelpOptions = true, version = Constants.VERSION,
         description ="Download translations from paratranz.")
 public class DownloadTranslationsCommand extends BaseCommand implements Callable<Integer> {
+    @CommandLine.Option(names = {"--resume"}, description = "继续上次中断的任务，跳过已确认完成的文件", defaultValue = "false")
+    protected boolean resume;
+
+    @CommandLine.Option(names = {"-j", "--jobs"}, description = "同时下载的文件数，默认读取 config.json 中的 jobs 配置")
+    protected Integer jobs;
+
     @Override
     public Integer call() throws Exception {
         Config config = initConfig();
@@ -28,6 +36,10 @@ public class DownloadTranslationsCommand extends BaseCommand implements Callable
             return 1;
         }
 
+        if (jobs != null) {
+            config.setJobs(jobs);
+        }
+
         ParatranzApiFactory factory = new ParatranzApiFactory(config);
         ProjectsApi projectsApi = factory.create(ProjectsApi.class);
         FilesApi filesApi = factory.create(FilesApi.class);
@@ -46,9 +58,18 @@ public class DownloadTranslationsCommand extends BaseCommand implements Callable
         app.setProjectId(config.getProjectId());
         app.setWorkspace(config.getWorkspace());
         app.setRules(config.getRules());
+        app.setResume(resume);
+        app.setRemoteFilesTtl(config.getRemoteFilesTtl());
+        app.setJobs(config.getJobs());
+        app.setProject(projectsDto);
 
-        // 执行上传
-        app.downloadTranslations();
+        // 执行下载
+        List<DownloadTranslationResult> results = app.downloadTranslations();
+        long failed = results.stream().filter(it -> DownloadTranslationResult.STATUS_FAILED.equals(it.getStatus())).count();
+        if (failed > 0) {
+            log.error("Failed to download {} files", failed);
+            return 1;
+        }
 
         log.info("Done");
         return 0;
@@ -9,6 +9,7 @@ import io.github.tfgcn.transsync.paratranz.api.ProjectsApi;
 import io.github.tfgcn.transsync.paratranz.model.projects.ProjectStatsDto;
 import io.github.tfgcn.transsync.paratranz.model.projects.ProjectsDto;
 import io.github.tfgcn.transsync.service.SyncService;
+import io.github.tfgcn.transsync.service.model.UploadSourcesResult;
 import lombok.extern.slf4j.Slf4j;
 import picocli.CommandLine;
 
@@ -26,6 +27,12 @@ import static io.github.tfgcn.transsync.Constants.*;
         description ="Upload source file to paratranz.")
 public class UploadSourceCommand extends BaseCommand implements Callable<Integer> {
 
+    @CommandLine.Option(names = {"--resume"}, description = "继续上次中断的任务，跳过已确认完成的文件", defaultValue = "false")
+    protected boolean resume;
+
+    @CommandLine.Option(names = {"-j", "--jobs"}, description = "同时上传的文件数，默认读取 config.json 中的 jobs 配置")
+    protected Integer jobs;
+
     @Override
     public Integer call() throws Exception {
         Config config = initConfig();
@@ -33,6 +40,10 @@ public class UploadSourceCommand extends BaseCommand implements Callable<Integer
             return 1;
         }
 
+        if (jobs != null) {
+            config.setJobs(jobs);
+        }
+
         ParatranzApiFactory factory = new ParatranzApiFactory(config);
 
         ProjectsApi projectsApi = factory.create(ProjectsApi.class);
@@ -52,9 +63,17 @@ public class UploadSourceCommand extends BaseCommand implements Callable<Integer
         app.setProjectId(config.getProjectId());
         app.setWorkspace(config.getWorkspace());
         app.setRules(config.getRules());
+        app.setResume(resume);
+        app.setRemoteFilesTtl(config.getRemoteFilesTtl());
+        app.setJobs(config.getJobs());
+        app.setProject(projectsDto);
 
         // 执行上传
-        app.uploadSources();
+        UploadSourcesResult result = app.uploadSources();
+        if (result.getFailedCount() > 0) {
+            log.error("Failed to upload {} files", result.getFailedCount());
+            return 1;
+        }
 
         log.info("Done.");
         return 0;
@@ -26,6 +26,9 @@ public class UploadTranslationsCommand extends BaseCommand implements Callable<I
     @CommandLine.Option(names = {"-f", "--force"}, description = "是否强制覆盖未翻译内容", defaultValue = "false", showDefaultValue = CommandLine.Help.Visibility.ALWAYS)
     protected Boolean force;// 强制覆盖未翻译内容
 
+    @CommandLine.Option(names = {"--resume"}, description = "继续上次中断的任务，跳过已确认完成的文件", defaultValue = "false")
+    protected boolean resume;
+
     @Override
     public Integer call() throws Exception {
         Config config = initConfig();
@@ -54,6 +57,10 @@ public class UploadTranslationsCommand extends BaseCommand implements Callable<I
         app.setProjectId(config.getProjectId());
         app.setWorkspace(config.getWorkspace());
         app.setRules(config.getRules());
+        app.setResume(resume);
+        app.setRemoteFilesTtl(config.getRemoteFilesTtl());
+        app.setPrefetch(config.getPrefetch());
+        app.setProject(projectsDto);
 
         app.uploadTranslations(force);
         return 0;
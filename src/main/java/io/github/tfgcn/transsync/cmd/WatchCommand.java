@@ -0,0 +1,89 @@
+package io.github.tfgcn.transsync.cmd;
+
+import io.github.tfgcn.transsync.Config;
+import io.github.tfgcn.transsync.Constants;
+import io.github.tfgcn.transsync.paratranz.ParatranzApiFactory;
+import io.github.tfgcn.transsync.paratranz.api.FilesApi;
+import io.github.tfgcn.transsync.paratranz.api.ProjectsApi;
+import io.github.tfgcn.transsync.paratranz.model.projects.ProjectsDto;
+import io.github.tfgcn.transsync.service.ScanIndex;
+import io.github.tfgcn.transsync.service.SyncService;
+import io.github.tfgcn.transsync.service.model.FileScanResult;
+import io.github.tfgcn.transsync.service.model.UploadSourcesResult;
+import lombok.extern.slf4j.Slf4j;
+import picocli.CommandLine;
+
+import java.util.List;
+import java.util.concurrent.Callable;
+
+/**
+ * desc: 监听工作空间，源文件发生变化时自动上传
+ *
+ * @author yanmaoyuan
+ */
+@Slf4j
+@CommandLine.Command(name = "watch", mixinStandardHelpOptions = true, version = Constants.VERSION,
+        description ="Watch the workspace and upload changed source files to paratranz.")
+public class WatchCommand extends BaseCommand implements Callable<Integer> {
+
+    @CommandLine.Option(names = {"-d", "--delay"}, description = "文件停止变化多少毫秒后开始上传", defaultValue = "2000")
+    protected long delay;
+
+    @CommandLine.Option(names = {"-j", "--jobs"}, description = "同时上传的文件数，默认读取 config.json 中的 jobs 配置")
+    protected Integer jobs;
+
+    @Override
+    public Integer call() throws Exception {
+        Config config = initConfig();
+        if (config == null) {
+            return 1;
+        }
+
+        if (jobs != null) {
+            config.setJobs(jobs);
+        }
+
+        ParatranzApiFactory factory = new ParatranzApiFactory(config);
+
+        ProjectsApi projectsApi = factory.create(ProjectsApi.class);
+        FilesApi filesApi = factory.create(FilesApi.class);
+
+        // 检查ProjectId是否正确
+        ProjectsDto projectsDto = projectsApi.getProject(config.getProjectId()).execute().body();
+        if (projectsDto == null) {
+            log.error("项目不存在");
+            return 1;
+        }
+        log.info("Project ID: {}", projectsDto.getId());
+        log.info("Project Name: {}", projectsDto.getName());
+
+        SyncService app = new SyncService();
+        app.setFilesApi(filesApi);
+        app.setProjectId(config.getProjectId());
+        app.setWorkspace(config.getWorkspace());
+        app.setRules(config.getRules());
+        app.setRemoteFilesTtl(config.getRemoteFilesTtl());
+        app.setJobs(config.getJobs());
+        app.setProject(projectsDto);
+
+        try (ScanIndex index = app.openScanIndex()) {
+            log.info("Watching workspace, press Ctrl+C to stop");
+            while (!Thread.currentThread().isInterrupted()) {
+                List<FileScanResult> changes = index.takeChanges(delay);
+                if (changes.isEmpty()) {
+                    continue;
+                }
+
+                log.info("Changed files: {}", changes.size());
+                // 每次上传前重新获取项目信息，用于判断远程文件列表缓存是否过期
+                app.setProject(projectsApi.getProject(config.getProjectId()).execute().body());
+                UploadSourcesResult result = app.uploadSources(changes);
+                if (result.getFailedCount() > 0) {
+                    log.error("Failed to upload {} files", result.getFailedCount());
+                }
+            }
+        }
+        return 0;
+    }
+
+}
@@ -8,6 +8,7 @@ import io.github.tfgcn.transsync.paratranz.ParatranzApiFactory;
 import io.github.tfgcn.transsync.paratranz.api.ProjectsApi;
 import io.github.tfgcn.transsync.paratranz.model.files.FilesDto;
 import io.github.tfgcn.transsync.paratranz.model.projects.ProjectsDto;
+import io.github.tfgcn.transsync.service.ScanIndex;
 import io.github.tfgcn.transsync.service.SyncService;
 import io.github.tfgcn.transsync.service.model.FileDownloadRequest;
 import io.github.tfgcn.transsync.service.model.FileScanResult;
@@ -58,6 +59,8 @@ public class DashboardPanel extends JPanel {
     private JButton uploadTranslationsButton;  // 上传同步按钮
     private JButton downloadTranslationsButton; // 下载同步按钮
 
+    private transient ScanIndex scanIndex;// 常驻的扫描索引，在多次操作之间复用
+
     public DashboardPanel(Config config) {
         this.config = config;
 
@@ -143,7 +146,8 @@ public class DashboardPanel extends JPanel {
         try {
             SyncService service = getSyncService();
 
-            List<FilesDto> files = service.fetchRemoteFiles();
+            // 根据远程文件的元数据跳过没有变化的文件，不能使用缓存的列表
+            List<FilesDto> files = service.fetchRemoteFiles(true);
             if (files.isEmpty()) {
                 JOptionPane.showMessageDialog(this, I18n.getString("message.nothingToDownload"));
                 return;
@@ -155,6 +159,13 @@ public class DashboardPanel extends JPanel {
                 return;
             }
 
+            // 上次下载没有完成时，由用户决定是否跳过已完成的文件；选择否时清空任务日志
+            if (service.isDownloadInterrupted()) {
+                int option = JOptionPane.showConfirmDialog(this, I18n.getString("message.confirmResume"),
+                        I18n.getString("title.confirmResume"), JOptionPane.YES_NO_OPTION, JOptionPane.QUESTION_MESSAGE);
+                service.setResume(option == JOptionPane.YES_OPTION);
+            }
+
             // remove everything not in source files
             Map<String, FileScanResult> sourceFilesMap = sourceFiles.stream().collect(Collectors.toMap(FileScanResult::getTranslationFilePath, file -> file));
             files.removeIf(file -> !sourceFilesMap.containsKey(file.getName()));
@@ -162,33 +173,7 @@ public class DashboardPanel extends JPanel {
             List<FileDownloadRequest> requestList = new ArrayList<>(sourceFiles.size());
             for (FilesDto file : files) {
                 if (sourceFilesMap.containsKey(file.getName())) {
-                    FileScanResult sourceFile = sourceFilesMap.get(file.getName());
-
-                    FileDownloadRequest request = new FileDownloadRequest();
-                    request.setSourceFilePath(sourceFile.getSourceFilePath());
-                    request.setTranslationFilePath(sourceFile.getTranslationFilePath());
-
-                    request.setId(file.getId());
-                    request.setName(file.getName());
-                    request.setProject(file.getProject());
-                    request.setFormat(file.getFormat());
-                    request.setTotal(file.getTotal());
-                    request.setTranslated(file.getTranslated());
-                    request.setDisputed(file.getDisputed());
-                    request.setChecked(file.getChecked());
-                    request.setReviewed(file.getReviewed());
-                    request.setHidden(file.getHidden());
-                    request.setWords(file.getWords());
-                    request.setHash(file.getHash());
-                    request.setFolder(file.getFolder());
-                    request.setProgress(file.getProgress());
-                    request.setExtra(file.getExtra());
-                    request.setLocked(file.getLocked());
-                    request.setModifiedAt(file.getModifiedAt());
-                    request.setCreatedAt(file.getCreatedAt());
-                    request.setUpdatedAt(file.getUpdatedAt());
-
-                    requestList.add(request);
+                    requestList.add(FileDownloadRequest.of(file, sourceFilesMap.get(file.getName())));
                 } else {
                     log.debug("ignore remote file:{}", file);
                 }
@@ -235,7 +220,8 @@ public class DashboardPanel extends JPanel {
                 JOptionPane.showMessageDialog(this, I18n.getString("message.nothingToUpload"));
                 return;
             }
-            List<FilesDto> files = service.fetchRemoteFiles();
+            // 按远程译文计算差异，不能使用缓存的列表
+            List<FilesDto> files = service.fetchRemoteFiles(true);
             if (files.isEmpty()) {
                 JOptionPane.showMessageDialog(this, I18n.getString("message.nothingToUpload"));
                 return;
@@ -278,16 +264,13 @@ public class DashboardPanel extends JPanel {
             SyncService service = getSyncService();
 
             // 2. 获取待处理文件列表（提前检查，无文件则提示）
-            List<FileScanResult> fileScanResults = service.getSourceFiles();
+            List<FileScanResult> fileScanResults = service.getSourceFiles(true);
             if (fileScanResults.isEmpty()) {
                 JOptionPane.showMessageDialog(this, I18n.getString("message.nothingToUpload"));
                 return;
             }
 
-            // 3. 预先加载远程文件缓存（避免任务中重复加载）
-            service.fetchRemoteFiles();
-
-            // 4. 创建并显示ProgressDialog（任务逻辑交给对话框）
+            // 3. 创建并显示ProgressDialog（任务逻辑交给对话框，远程文件列表在任务线程中加载）
             ProgressDialog dialog = new ProgressDialog(
                     (Frame) SwingUtilities.getWindowAncestor(this),
                     I18n.getString("dialog.title.uploadSourceFiles"),
@@ -298,7 +281,7 @@ public class DashboardPanel extends JPanel {
             );
             dialog.setVisible(true); // 模态显示，对话框关闭后再执行后续操作
 
-            // 5. 任务结束后刷新UI
+            // 4. 任务结束后刷新UI
             loadProjectInfo();
             updateStatus();
 
@@ -371,13 +354,42 @@ public class DashboardPanel extends JPanel {
         service.setWorkspace(config.getWorkspace());
         service.setProjectId(config.getProjectId());
         service.setRules(config.getRules());
+        service.setJobs(config.getJobs());
+        service.setRemoteFilesTtl(config.getRemoteFilesTtl());
+        service.setPrefetch(config.getPrefetch());
+        attachScanIndex(service);
 
         ParatranzApiFactory factory = new ParatranzApiFactory(config);
         service.setFilesApi(factory.create(FilesApi.class));
         service.setStringsApi(factory.create(StringsApi.class));
+        // 项目信息在任务线程中获取，不阻塞界面
+        service.setProjectsApi(factory.create(ProjectsApi.class));
         return service;
     }
 
+    /**
+     * 复用已有的扫描索引，工作目录或规则变化时重新建立。无法监听文件变化时每次重新扫描。
+     */
+    private void attachScanIndex(SyncService service) {
+        if (config.getRules() == null || config.getRules().isEmpty()) {
+            return;
+        }
+        try {
+            service.setScanIndex(scanIndex);
+            if (service.isScanIndexCurrent()) {
+                return;
+            }
+            if (scanIndex != null) {
+                scanIndex.close();
+                scanIndex = null;
+            }
+            scanIndex = service.openScanIndex();
+        } catch (IOException e) {
+            log.warn("Failed to watch workspace", e);
+            service.setScanIndex(null);
+        }
+    }
+
     void setLocalizedText() {
         paratranzStatus.setText(I18n.getString("label.connectStatus"));
         paratranzStatusLabel.setText(I18n.getString(connectionStatus.getMessage()));
@@ -2,10 +2,13 @@ package io.github.tfgcn.transsync.gui;
 
 import io.github.tfgcn.transsync.I18n;
 import io.github.tfgcn.transsync.paratranz.model.files.FilesDto;
+import io.github.tfgcn.transsync.service.DownloadListener;
 import io.github.tfgcn.transsync.service.SyncService;
+import io.github.tfgcn.transsync.service.model.DownloadTranslationResult;
 import io.github.tfgcn.transsync.service.model.FileDownloadRequest;
 import io.github.tfgcn.transsync.service.model.FileScanResult;
 import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
 
 import javax.swing.*;
 import javax.swing.border.EmptyBorder;
@@ -14,9 +17,12 @@ import java.awt.*;
 import java.awt.event.WindowAdapter;
 import java.awt.event.WindowEvent;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.stream.Collectors;
 
+@Slf4j
 public class ProgressDialog extends JDialog {
 
     // 颜色常量定义
@@ -256,6 +262,77 @@ public class ProgressDialog extends JDialog {
 
     // 核心：执行任务逻辑
     private void executeTask() {
+        // 项目信息用于判断远程文件列表缓存是否过期
+        syncService.loadProject();
+
+        if (taskType == TaskType.DOWNLOAD_TRANSLATIONS) {
+            executeDownload();
+        } else {
+            executeEach();
+        }
+
+        // 保存工作空间缓存
+        syncService.flush();
+
+        // 任务结束：更新对话框状态
+        SwingUtilities.invokeLater(() -> {
+            isCompleted.set(true);
+            cancelButton.setVisible(false);
+            completeButton.setVisible(true);
+            setTitle(getTitle() + " - " + (isCancelled.get() ? I18n.getString("label.canceled") : I18n.getString("label.completed")));
+        });
+    }
+
+    // 多个文件同时下载，每个文件完成时立即更新状态
+    @SuppressWarnings("unchecked")
+    private void executeDownload() {
+        List<FileDownloadRequest> requests = (List<FileDownloadRequest>) fileItems;
+        Set<Integer> finished = ConcurrentHashMap.newKeySet();// 已更新结果的行
+        try {
+            syncService.downloadTranslations(requests, new DownloadListener() {
+                @Override
+                public void onStart(int index, FileDownloadRequest request) {
+                    SwingUtilities.invokeLater(() -> setFileStatus(index, I18n.getString("label.inProgress")));
+                }
+
+                @Override
+                public void onComplete(int index, DownloadTranslationResult result) {
+                    if (finished.add(index)) {
+                        String message = SyncService.getDownloadMessage(result);
+                        SwingUtilities.invokeLater(() -> updateFileProgress(index, message));
+                    }
+                }
+            }, isCancelled::get);
+        } catch (Exception e) {
+            log.error("Download failed", e);
+            // 任务整体失败，尚未得到结果的文件全部标记为失败
+            String errorMsg = I18n.getString("label.failed") + (e.getMessage() != null ? e.getMessage() : I18n.getString("label.unknown"));
+            for (int i = 0; i < requests.size(); i++) {
+                int index = i;
+                if (finished.add(index)) {
+                    SwingUtilities.invokeLater(() -> updateFileProgress(index, errorMsg));
+                }
+            }
+        }
+    }
+
+    // 逐个处理文件
+    private void executeEach() {
+        // 预先加载远程文件列表（避免任务中重复加载），失败时无法判断文件是否已存在，不再上传
+        if (taskType == TaskType.UPLOAD_SOURCES) {
+            try {
+                syncService.fetchRemoteFiles();
+            } catch (Exception e) {
+                log.error("Failed to fetch remote files", e);
+                String errorMsg = I18n.getString("label.failed") + (e.getMessage() != null ? e.getMessage() : I18n.getString("label.unknown"));
+                for (int i = 0; i < fileItems.size(); i++) {
+                    int index = i;
+                    SwingUtilities.invokeLater(() -> updateFileProgress(index, errorMsg));
+                }
+                return;
+            }
+        }
+
         for (int i = 0; i < fileItems.size(); i++) {
             // 检查是否取消，若取消则标记剩余文件状态
             if (isCancelled.get()) {
@@ -283,10 +360,6 @@ public class ProgressDialog extends JDialog {
                         result = syncService.uploadTranslation((FilesDto) file, force);
                         break;
                     }
-                    case DOWNLOAD_TRANSLATIONS: {
-                        result = syncService.downloadTranslation((FileDownloadRequest) file);
-                        break;
-                    }
                     default:
                         result = I18n.getString("label.skipUnknownTask");
                 }
@@ -299,13 +372,5 @@ public class ProgressDialog extends JDialog {
                 SwingUtilities.invokeLater(() -> updateFileProgress(index, I18n.getString("label.failed") + errorMsg));
             }
         }
-
-        // 任务结束：更新对话框状态
-        SwingUtilities.invokeLater(() -> {
-            isCompleted.set(true);
-            cancelButton.setVisible(false);
-            completeButton.setVisible(true);
-            setTitle(getTitle() + " - " + (isCancelled.get() ? I18n.getString("label.canceled") : I18n.getString("label.completed")));
-        });
     }
 }
\ No newline at end of file
@@ -32,6 +32,7 @@ public class RuleDialog extends JDialog {
     private JTextField translationPatternField;
     private JTextField srcLangField;
     private JTextField languageField;
+    private JTextField archivePatternField;
     private JTextArea ignoresTextArea; // 忽略规则输入框
     private JTree sourceTree;
     private JTree translationTree;
@@ -128,13 +129,25 @@ public class RuleDialog extends JDialog {
 
         gbc.gridx = 0;
         gbc.gridy = 4;
+        gbc.weightx = 0.2;
+        panel.add(new JLabel(I18n.getString("label.archivePattern")), gbc);
+
+        gbc.gridx = 1;
+        gbc.gridy = 4;
+        gbc.weightx = 0.8;
+        archivePatternField = new JTextField();
+        archivePatternField.setToolTipText(I18n.getString("tooltip.archivePattern"));
+        panel.add(archivePatternField, gbc);
+
+        gbc.gridx = 0;
+        gbc.gridy = 5;
         gbc.gridheight = 2; // 跨 2 行
         gbc.weightx = 0.2;
         gbc.anchor = GridBagConstraints.NORTHWEST; // 顶部左对齐
         panel.add(new JLabel(I18n.getString("label.ignorePatterns")), gbc);
 
         gbc.gridx = 1;
-        gbc.gridy = 4;
+        gbc.gridy = 5;
         gbc.gridheight = 1;
         gbc.weightx = 0.8;
         gbc.weighty = 1.0; // 允许垂直扩展
@@ -216,6 +229,7 @@ public class RuleDialog extends JDialog {
             translationPatternField.setText(rule.getTranslationPattern());
             srcLangField.setText(rule.getSrcLang());
             languageField.setText(rule.getDestLang());
+            archivePatternField.setText(rule.getArchivePattern());
 
             // 加载忽略规则
             if (rule.getIgnores() != null && !rule.getIgnores().isEmpty()) {
@@ -242,6 +256,7 @@ public class RuleDialog extends JDialog {
         request.setTranslationFilePattern(translationPatternField.getText());
         request.setSrcLang(srcLangField.getText());
         request.setDestLang(languageField.getText());
+        request.setArchivePattern(archivePatternField.getText());
 
         // 处理忽略规则（按行分割）
         List<String> ignores = new ArrayList<>();
@@ -340,6 +355,7 @@ public class RuleDialog extends JDialog {
         rule.setTranslationPattern(translationPatternField.getText());
         rule.setSrcLang(srcLangField.getText());
         rule.setDestLang(languageField.getText());
+        rule.setArchivePattern(archivePatternField.getText().trim().isEmpty() ? null : archivePatternField.getText().trim());
 
         // 保存忽略规则
         List<String> ignores = new ArrayList<>();
@@ -1,5 +1,7 @@
 package io.github.tfgcn.transsync.paratranz;
 
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
 import io.github.tfgcn.transsync.Config;
 import io.github.tfgcn.transsync.paratranz.error.ErrorHandlingCallAdapterFactory;
 import io.github.tfgcn.transsync.paratranz.interceptor.AuthInterceptor;
@@ -22,6 +24,13 @@ import static io.github.tfgcn.transsync.Constants.*;
 @Slf4j
 public class ParatranzApiFactory {
 
+    /**
+     * 解析接口请求和响应，除常用模型使用 {@link ParatranzTypeAdapterFactory} 外与 Gson 的默认配置相同
+     */
+    public static final Gson GSON = new GsonBuilder()
+            .registerTypeAdapterFactory(new ParatranzTypeAdapterFactory())
+            .create();
+
     private final Retrofit retrofit;
 
     private final AuthInterceptor authInterceptor;
@@ -55,7 +64,7 @@ public class ParatranzApiFactory {
         retrofit = new Retrofit.Builder()
                 .baseUrl("https://paratranz.cn/api/")
                 .client(okHttpClient)
-                .addConverterFactory(GsonConverterFactory.create())
+                .addConverterFactory(GsonConverterFactory.create(GSON))
                 .addCallAdapterFactory(new ErrorHandlingCallAdapterFactory())
                 .build();
     }
@@ -86,7 +95,7 @@ public class ParatranzApiFactory {
         retrofit = new Retrofit.Builder()
                 .baseUrl("https://paratranz.cn/api/")
                 .client(okHttpClient)
-                .addConverterFactory(GsonConverterFactory.create())
+                .addConverterFactory(GsonConverterFactory.create(GSON))
                 .addCallAdapterFactory(new ErrorHandlingCallAdapterFactory())
                 .build();
     }
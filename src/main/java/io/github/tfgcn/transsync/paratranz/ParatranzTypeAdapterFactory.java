@@ -0,0 +1,331 @@
+package io.github.tfgcn.transsync.paratranz;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonPrimitive;
+import com.google.gson.TypeAdapter;
+import com.google.gson.TypeAdapterFactory;
+import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+import io.github.tfgcn.transsync.paratranz.model.files.FileProgressDto;
+import io.github.tfgcn.transsync.paratranz.model.files.FilesDto;
+import io.github.tfgcn.transsync.paratranz.model.files.TranslationDto;
+import io.github.tfgcn.transsync.paratranz.model.strings.Comment;
+import io.github.tfgcn.transsync.paratranz.model.strings.FileInfo;
+import io.github.tfgcn.transsync.paratranz.model.strings.HistoryItem;
+import io.github.tfgcn.transsync.paratranz.model.strings.ImportHistoryItem;
+import io.github.tfgcn.transsync.paratranz.model.strings.StringsDto;
+import io.github.tfgcn.transsync.paratranz.model.strings.User;
+
+import java.io.IOException;
+import java.time.OffsetDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * desc: paratranz 常用模型的序列化
+ * <p>{@link TranslationDto}、{@link FilesDto}、{@link StringsDto} 数量多，每次下载和上传都要解析，
+ * 这里按字段逐个读写，不经过反射。日期、嵌套对象等其他类型仍交给所在 Gson 的适配器处理，
+ * 因此日期格式、是否输出 null 等配置与反射方式完全一致。</p>
+ * <p>接口返回的日期都是 ISO-8601 格式，读取时先用 {@link OffsetDateTime} 解析，失败时再交给 Gson 的日期适配器；
+ * Gson 默认的日期适配器会先尝试本地格式，每个日期都要抛出并捕获一次异常。</p>
+ * <p>字段名与模型的属性名一致，未知字段直接跳过。模型增加字段时需要同步修改这里。</p>
+ *
+ * @author yanmaoyuan
+ */
+public class ParatranzTypeAdapterFactory implements TypeAdapterFactory {
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> TypeAdapter<T> create(Gson gson, TypeToken<T> type) {
+        Class<? super T> rawType = type.getRawType();
+        if (rawType == TranslationDto.class) {
+            return (TypeAdapter<T>) new TranslationAdapter();
+        }
+        if (rawType == FilesDto.class) {
+            return (TypeAdapter<T>) new FilesAdapter(gson);
+        }
+        if (rawType == StringsDto.class) {
+            return (TypeAdapter<T>) new StringsAdapter(gson);
+        }
+        return null;
+    }
+
+    static class TranslationAdapter extends TypeAdapter<TranslationDto> {
+
+        @Override
+        public void write(JsonWriter out, TranslationDto value) throws IOException {
+            if (value == null) {
+                out.nullValue();
+                return;
+            }
+            out.beginObject();
+            out.name("id").value(value.getId());
+            out.name("key").value(value.getKey());
+            out.name("original").value(value.getOriginal());
+            out.name("translation").value(value.getTranslation());
+            out.name("stage").value(value.getStage());
+            out.name("context").value(value.getContext());
+            out.endObject();
+        }
+
+        @Override
+        public TranslationDto read(JsonReader in) throws IOException {
+            if (in.peek() == JsonToken.NULL) {
+                in.nextNull();
+                return null;
+            }
+            TranslationDto value = new TranslationDto();
+            in.beginObject();
+            while (in.hasNext()) {
+                switch (in.nextName()) {
+                    case "id": value.setId(readInteger(in)); break;
+                    case "key": value.setKey(readString(in)); break;
+                    case "original": value.setOriginal(readString(in)); break;
+                    case "translation": value.setTranslation(readString(in)); break;
+                    case "stage": value.setStage(readInteger(in)); break;
+                    case "context": value.setContext(readString(in)); break;
+                    default: in.skipValue();
+                }
+            }
+            in.endObject();
+            return value;
+        }
+    }
+
+    static class FilesAdapter extends TypeAdapter<FilesDto> {
+        private final TypeAdapter<Date> dateAdapter;
+        private final TypeAdapter<FileProgressDto> progressAdapter;
+        private final TypeAdapter<Map<String, Object>> extraAdapter;
+
+        FilesAdapter(Gson gson) {
+            dateAdapter = new DateAdapter(gson.getAdapter(Date.class));
+            progressAdapter = gson.getAdapter(FileProgressDto.class);
+            extraAdapter = gson.getAdapter(new TypeToken<Map<String, Object>>() {});
+        }
+
+        @Override
+        public void write(JsonWriter out, FilesDto value) throws IOException {
+            if (value == null) {
+                out.nullValue();
+                return;
+            }
+            out.beginObject();
+            out.name("id").value(value.getId());
+            writeValue(out.name("createdAt"), dateAdapter, value.getCreatedAt());
+            writeValue(out.name("updatedAt"), dateAdapter, value.getUpdatedAt());
+            writeValue(out.name("modifiedAt"), dateAdapter, value.getModifiedAt());
+            out.name("name").value(value.getName());
+            out.name("project").value(value.getProject());
+            out.name("format").value(value.getFormat());
+            out.name("total").value(value.getTotal());
+            out.name("translated").value(value.getTranslated());
+            out.name("disputed").value(value.getDisputed());
+            out.name("checked").value(value.getChecked());
+            out.name("reviewed").value(value.getReviewed());
+            out.name("hidden").value(value.getHidden());
+            out.name("locked").value(value.getLocked());
+            out.name("words").value(value.getWords());
+            out.name("hash").value(value.getHash());
+            out.name("folder").value(value.getFolder());
+            writeValue(out.name("progress"), progressAdapter, value.getProgress());
+            writeValue(out.name("extra"), extraAdapter, value.getExtra());
+            out.endObject();
+        }
+
+        @Override
+        public FilesDto read(JsonReader in) throws IOException {
+            if (in.peek() == JsonToken.NULL) {
+                in.nextNull();
+                return null;
+            }
+            FilesDto value = new FilesDto();
+            in.beginObject();
+            while (in.hasNext()) {
+                switch (in.nextName()) {
+                    case "id": value.setId(readInteger(in)); break;
+                    case "createdAt": value.setCreatedAt(dateAdapter.read(in)); break;
+                    case "updatedAt": value.setUpdatedAt(dateAdapter.read(in)); break;
+                    case "modifiedAt": value.setModifiedAt(dateAdapter.read(in)); break;
+                    case "name": value.setName(readString(in)); break;
+                    case "project": value.setProject(readInteger(in)); break;
+                    case "format": value.setFormat(readString(in)); break;
+                    case "total": value.setTotal(readInteger(in)); break;
+                    case "translated": value.setTranslated(readInteger(in)); break;
+                    case "disputed": value.setDisputed(readInteger(in)); break;
+                    case "checked": value.setChecked(readInteger(in)); break;
+                    case "reviewed": value.setReviewed(readInteger(in)); break;
+                    case "hidden": value.setHidden(readInteger(in)); break;
+                    case "locked": value.setLocked(readInteger(in)); break;
+                    case "words": value.setWords(readInteger(in)); break;
+                    case "hash": value.setHash(readString(in)); break;
+                    case "folder": value.setFolder(readString(in)); break;
+                    case "progress": value.setProgress(progressAdapter.read(in)); break;
+                    case "extra": value.setExtra(extraAdapter.read(in)); break;
+                    default: in.skipValue();
+                }
+            }
+            in.endObject();
+            return value;
+        }
+    }
+
+    static class StringsAdapter extends TypeAdapter<StringsDto> {
+        private final TypeAdapter<Date> dateAdapter;
+        private final TypeAdapter<FileInfo> fileAdapter;
+        private final TypeAdapter<Object> extraAdapter;
+        private final TypeAdapter<User> userAdapter;
+        private final TypeAdapter<List<Comment>> commentsAdapter;
+        private final TypeAdapter<List<ImportHistoryItem>> importHistoryAdapter;
+        private final TypeAdapter<List<HistoryItem>> historyAdapter;
+
+        StringsAdapter(Gson gson) {
+            dateAdapter = new DateAdapter(gson.getAdapter(Date.class));
+            fileAdapter = gson.getAdapter(FileInfo.class);
+            extraAdapter = gson.getAdapter(Object.class);
+            userAdapter = gson.getAdapter(User.class);
+            commentsAdapter = gson.getAdapter(new TypeToken<List<Comment>>() {});
+            importHistoryAdapter = gson.getAdapter(new TypeToken<List<ImportHistoryItem>>() {});
+            historyAdapter = gson.getAdapter(new TypeToken<List<HistoryItem>>() {});
+        }
+
+        @Override
+        public void write(JsonWriter out, StringsDto value) throws IOException {
+            if (value == null) {
+                out.nullValue();
+                return;
+            }
+            out.beginObject();
+            out.name("id").value(value.getId());
+            writeValue(out.name("createdAt"), dateAdapter, value.getCreatedAt());
+            writeValue(out.name("updatedAt"), dateAdapter, value.getUpdatedAt());
+            out.name("key").value(value.getKey());
+            out.name("original").value(value.getOriginal());
+            out.name("translation").value(value.getTranslation());
+            writeValue(out.name("file"), fileAdapter, value.getFile());
+            out.name("stage").value(value.getStage());
+            out.name("project").value(value.getProject());
+            out.name("uid").value(value.getUid());
+            writeValue(out.name("extra"), extraAdapter, value.getExtra());
+            out.name("context").value(value.getContext());
+            out.name("words").value(value.getWords());
+            out.name("version").value(value.getVersion());
+            writeValue(out.name("user"), userAdapter, value.getUser());
+            writeValue(out.name("comments"), commentsAdapter, value.getComments());
+            writeValue(out.name("importHistory"), importHistoryAdapter, value.getImportHistory());
+            writeValue(out.name("history"), historyAdapter, value.getHistory());
+            out.name("fileId").value(value.getFileId());
+            out.endObject();
+        }
+
+        @Override
+        public StringsDto read(JsonReader in) throws IOException {
+            if (in.peek() == JsonToken.NULL) {
+                in.nextNull();
+                return null;
+            }
+            StringsDto value = new StringsDto();
+            in.beginObject();
+            while (in.hasNext()) {
+                switch (in.nextName()) {
+                    case "id": value.setId(readLong(in)); break;
+                    case "createdAt": value.setCreatedAt(dateAdapter.read(in)); break;
+                    case "updatedAt": value.setUpdatedAt(dateAdapter.read(in)); break;
+                    case "key": value.setKey(readString(in)); break;
+                    case "original": value.setOriginal(readString(in)); break;
+                    case "translation": value.setTranslation(readString(in)); break;
+                    case "file": value.setFile(fileAdapter.read(in)); break;
+                    case "stage": value.setStage(readInteger(in)); break;
+                    case "project": value.setProject(readInteger(in)); break;
+                    case "uid": value.setUid(readInteger(in)); break;
+                    case "extra": value.setExtra(extraAdapter.read(in)); break;
+                    case "context": value.setContext(readString(in)); break;
+                    case "words": value.setWords(readInteger(in)); break;
+                    case "version": value.setVersion(readInteger(in)); break;
+                    case "user": value.setUser(userAdapter.read(in)); break;
+                    case "comments": value.setComments(commentsAdapter.read(in)); break;
+                    case "importHistory": value.setImportHistory(importHistoryAdapter.read(in)); break;
+                    case "history": value.setHistory(historyAdapter.read(in)); break;
+                    case "fileId": value.setFileId(readInteger(in)); break;
+                    default: in.skipValue();
+                }
+            }
+            in.endObject();
+            return value;
+        }
+    }
+
+    /**
+     * 优先按 ISO-8601 解析日期，写入仍使用 Gson 配置的格式
+     */
+    static class DateAdapter extends TypeAdapter<Date> {
+        private final TypeAdapter<Date> delegate;
+
+        DateAdapter(TypeAdapter<Date> delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public void write(JsonWriter out, Date value) throws IOException {
+            delegate.write(out, value);
+        }
+
+        @Override
+        public Date read(JsonReader in) throws IOException {
+            if (in.peek() != JsonToken.STRING) {
+                return delegate.read(in);
+            }
+            String value = in.nextString();
+            try {
+                return Date.from(OffsetDateTime.parse(value).toInstant());
+            } catch (DateTimeParseException e) {
+                return delegate.fromJsonTree(new JsonPrimitive(value));
+            }
+        }
+    }
+
+    /**
+     * 写入字段值，null 时调用 {@link JsonWriter#nullValue()}，由 JsonWriter 按 serializeNulls 决定是否输出字段
+     */
+    private static <T> void writeValue(JsonWriter out, TypeAdapter<T> adapter, T value) throws IOException {
+        if (value == null) {
+            out.nullValue();
+        } else {
+            adapter.write(out, value);
+        }
+    }
+
+    /**
+     * 与 Gson 内置的 String 适配器一致，布尔值转为字符串
+     */
+    private static String readString(JsonReader in) throws IOException {
+        JsonToken token = in.peek();
+        if (token == JsonToken.NULL) {
+            in.nextNull();
+            return null;
+        }
+        if (token == JsonToken.BOOLEAN) {
+            return Boolean.toString(in.nextBoolean());
+        }
+        return in.nextString();
+    }
+
+    private static Integer readInteger(JsonReader in) throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return null;
+        }
+        return in.nextInt();
+    }
+
+    private static Long readLong(JsonReader in) throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return null;
+        }
+        return in.nextLong();
+    }
+}
@@ -0,0 +1,76 @@
+package io.github.tfgcn.transsync.paratranz;
+
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import io.github.tfgcn.transsync.paratranz.model.files.TranslationDto;
+import okhttp3.ResponseBody;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+
+/**
+ * desc: 逐个读取译文接口返回的词条
+ * <p>配合 {@link io.github.tfgcn.transsync.paratranz.api.FilesApi#getTranslateStream} 使用，
+ * 边接收响应边解析，已处理的词条可以立即释放，不需要先得到完整的列表。</p>
+ * <pre>
+ * try (TranslationReader reader = new TranslationReader(body)) {
+ *     while (reader.hasNext()) {
+ *         TranslationDto item = reader.next();
+ *     }
+ * }
+ * </pre>
+ *
+ * @author yanmaoyuan
+ */
+public class TranslationReader implements Closeable {
+
+    private static final TypeAdapter<TranslationDto> ADAPTER = ParatranzApiFactory.GSON.getAdapter(TranslationDto.class);
+
+    private final JsonReader reader;
+    private boolean empty;// 响应为 null
+
+    public TranslationReader(ResponseBody body) throws IOException {
+        this(body.charStream());
+    }
+
+    public TranslationReader(Reader in) throws IOException {
+        reader = new JsonReader(in);
+        if (reader.peek() == JsonToken.NULL) {
+            reader.nextNull();
+            empty = true;
+        } else {
+            reader.beginArray();
+        }
+    }
+
+    /**
+     * @return 是否还有词条
+     */
+    public boolean hasNext() throws IOException {
+        if (empty) {
+            return false;
+        }
+        while (reader.hasNext()) {
+            if (reader.peek() != JsonToken.NULL) {
+                return true;
+            }
+            // 跳过数组中的 null
+            reader.nextNull();
+        }
+        return false;
+    }
+
+    /**
+     * @return 下一个词条
+     */
+    public TranslationDto next() throws IOException {
+        return ADAPTER.read(reader);
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+}
@@ -5,6 +5,7 @@ import io.github.tfgcn.transsync.paratranz.model.files.TranslationDto;
 import io.github.tfgcn.transsync.paratranz.model.files.FileUploadRespDto;
 import okhttp3.MultipartBody;
 import okhttp3.RequestBody;
+import okhttp3.ResponseBody;
 import retrofit2.Call;
 import retrofit2.http.*;
 
@@ -93,6 +94,17 @@ public interface FilesApi {
     Call<List<TranslationDto>> getTranslate(@Path("projectId") Integer projectId,
                                             @Path("fileId") Integer fileId);
 
+    /**
+     * 通过ID获取文件翻译数据，响应体不缓冲，配合 {@link io.github.tfgcn.transsync.paratranz.TranslationReader} 边接收边处理
+     * @param projectId 项目ID
+     * @param fileId 文件ID
+     * @return 响应体，使用后需要关闭
+     */
+    @Streaming
+    @GET("projects/{projectId}/files/{fileId}/translation")
+    Call<ResponseBody> getTranslateStream(@Path("projectId") Integer projectId,
+                                          @Path("fileId") Integer fileId);
+
     /**
      * 通过ID上传并更新文件中的词条翻译。
      * <p>注意此接口仅更新译文，不对原文做改动</p>
@@ -0,0 +1,30 @@
+package io.github.tfgcn.transsync.service;
+
+import io.github.tfgcn.transsync.service.model.DownloadTranslationResult;
+import io.github.tfgcn.transsync.service.model.FileDownloadRequest;
+
+/**
+ * desc: 下载进度回调
+ * <p>多个文件同时下载时，回调会在各个工作线程中调用，实现类需要自行处理线程安全。</p>
+ *
+ * @author yanmaoyuan
+ */
+public interface DownloadListener {
+
+    /**
+     * 开始下载文件
+     *
+     * @param index 文件在下载列表中的位置
+     * @param request 下载请求
+     */
+    default void onStart(int index, FileDownloadRequest request) {
+    }
+
+    /**
+     * 文件处理完成，包括失败和取消
+     *
+     * @param index 文件在下载列表中的位置
+     * @param result 下载结果
+     */
+    void onComplete(int index, DownloadTranslationResult result);
+}
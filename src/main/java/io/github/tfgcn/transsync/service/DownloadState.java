@@ -0,0 +1,153 @@
+package io.github.tfgcn.transsync.service;
+
+import io.github.tfgcn.transsync.service.model.DownloadStateEntry;
+import io.github.tfgcn.transsync.utils.JsonUtils;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static io.github.tfgcn.transsync.Constants.*;
+
+/**
+ * desc: 译文下载状态
+ * <p>以远程文件名为键，记录上次下载成功时远程文件的元数据指纹、原文MD5和写入后的本地译文MD5。
+ * 三者都未变化时，远程译文和本地文件都不需要更新，可以跳过下载。</p>
+ * <p>同时记录上次完整下载成功时项目的修改标记和本地文件摘要，两者都未变化时整个项目都不需要下载。</p>
+ * <p>状态保存在 workspace/.transsync/download-state.json。</p>
+ *
+ * @author yanmaoyuan
+ */
+@Slf4j
+public class DownloadState {
+
+    private final Path stateFile;
+    private final Map<String, DownloadStateEntry> entries;
+    private volatile String project;// 项目修改标记
+    private volatile String local;// 本地原文和译文的整体摘要
+    private volatile boolean dirty;
+
+    private DownloadState(Path stateFile, Snapshot snapshot) {
+        this.stateFile = stateFile;
+        this.entries = new ConcurrentHashMap<>(snapshot.files);
+        this.project = snapshot.project;
+        this.local = snapshot.local;
+    }
+
+    /**
+     * 保存到文件的内容
+     */
+    private static class Snapshot {
+        private String project;
+        private String local;
+        private Map<String, DownloadStateEntry> files = new TreeMap<>();
+    }
+
+    /**
+     * 加载工作空间中的下载状态，文件不存在或已损坏时返回空状态。
+     *
+     * @param workspace 工作空间
+     * @return 下载状态
+     */
+    public static DownloadState load(Path workspace) {
+        Path file = workspace.resolve(WORKSPACE_DATA_DIR).resolve(DOWNLOAD_STATE_FILE);
+        Snapshot snapshot = null;
+        if (Files.isRegularFile(file)) {
+            try {
+                snapshot = JsonUtils.readFile(file.toFile(), Snapshot.class);
+            } catch (Exception e) {
+                log.warn("Ignore broken download state: {}", file, e);
+            }
+        }
+        if (snapshot == null || snapshot.files == null) {
+            snapshot = new Snapshot();
+        }
+        return new DownloadState(file, snapshot);
+    }
+
+    /**
+     * 判断文件自上次下载以来是否没有变化
+     *
+     * @param name 远程文件名
+     * @param remote 远程文件元数据指纹
+     * @param source 原文文件MD5
+     * @param local 本地译文文件MD5，文件不存在时为 null
+     */
+    public boolean isUnchanged(String name, String remote, String source, String local) {
+        DownloadStateEntry entry = entries.get(name);
+        return entry != null && local != null
+                && entry.getRemote().equals(remote)
+                && entry.getSource().equals(source)
+                && entry.getLocal().equals(local);
+    }
+
+    /**
+     * 记录下载成功后的状态
+     */
+    public void record(String name, String remote, String source, String local) {
+        DownloadStateEntry entry = new DownloadStateEntry(remote, source, local);
+        if (!entry.equals(entries.put(name, entry))) {
+            dirty = true;
+        }
+    }
+
+    /**
+     * 清除文件的下载状态，下次下载时重新获取译文
+     */
+    public void remove(String name) {
+        if (entries.remove(name) != null) {
+            dirty = true;
+        }
+    }
+
+    /**
+     * 判断项目自上次完整下载以来是否没有变化
+     *
+     * @param project 项目修改标记
+     * @param local 本地原文和译文的整体摘要
+     */
+    public boolean isProjectUnchanged(String project, String local) {
+        return project.equals(this.project) && local.equals(this.local);
+    }
+
+    /**
+     * 记录完整下载成功后的项目状态
+     */
+    public synchronized void recordProject(String project, String local) {
+        if (!project.equals(this.project) || !local.equals(this.local)) {
+            this.project = project;
+            this.local = local;
+            dirty = true;
+        }
+    }
+
+    /**
+     * 保存下载状态。未变化时不写文件。
+     */
+    public synchronized void save() throws IOException {
+        if (!dirty) {
+            return;
+        }
+        // 保存失败时恢复标记，下次继续保存
+        dirty = false;
+        try {
+            Files.createDirectories(stateFile.getParent());
+            Path temp = stateFile.resolveSibling(DOWNLOAD_STATE_FILE + ".tmp");
+            Snapshot snapshot = new Snapshot();
+            snapshot.project = project;
+            snapshot.local = local;
+            snapshot.files = new TreeMap<>(entries);
+            JsonUtils.writeFile(temp.toFile(), snapshot);
+            Files.move(temp, stateFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException | RuntimeException e) {
+            dirty = true;
+            throw e;
+        }
+        log.debug("Download state saved: {} entries", entries.size());
+    }
+}
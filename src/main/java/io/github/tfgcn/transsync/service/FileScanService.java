@@ -1,16 +1,40 @@
 package io.github.tfgcn.transsync.service;
 
+import io.github.tfgcn.transsync.service.model.DirectoryScanEntry;
 import io.github.tfgcn.transsync.service.model.FileScanRequest;
 import io.github.tfgcn.transsync.service.model.FileScanResult;
+import io.github.tfgcn.transsync.utils.FileDigests;
+import lombok.Getter;
+import lombok.Setter;
 import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.codec.binary.Hex;
 import org.apache.commons.io.FileUtils;
 
 import java.io.File;
 import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.*;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.MessageDigest;
 import java.util.ArrayList;
-import java.util.Comparator;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.Consumer;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
 
 /**
  * desc: 扫描文件服务
@@ -20,6 +44,28 @@ import java.util.List;
 @Slf4j
 public class FileScanService {
 
+    /**
+     * 每个子任务至多计算的文件数
+     */
+    private static final int DIGEST_BATCH_SIZE = 16;
+    /**
+     * 修改时间距今小于此值的文件，其摘要不复用。同一时间片内的再次修改无法通过 mtime 识别。
+     */
+    private static final long RACY_WINDOW_MILLIS = 2000L;
+
+    /**
+     * 文件摘要清单，为空时总是读取文件计算摘要
+     */
+    @Getter
+    @Setter
+    private HashManifest hashManifest;
+
+    /**
+     * 扫描结果缓存，为空时总是列出每个目录
+     */
+    @Setter
+    private ScanCache scanCache;
+
     /**
      * 扫描原文，并映射生成译文路径
      *
@@ -28,15 +74,212 @@ public class FileScanService {
      * @throws IOException
      */
     public List<FileScanResult> scanAndMapFiles(FileScanRequest request) throws IOException {
-        List<FileScanResult> results = new ArrayList<>();
+        RuleScan rule = prepare(0, request);
+        log.warn("Set workspace to: {}", rule.workspacePath);
+
+        // 查找所有匹配的文件
+        List<Path> matchedFiles = findFiles(rule);
+
+        // 生成映射结果
+        List<FileScanResult> results = new ArrayList<>(matchedFiles.size());
+        for (Path file : matchedFiles) {
+            for (Candidate candidate : expand(rule, file)) {
+                results.add(candidate.result);
+            }
+        }
+
+        if (request.isDigest()) {
+            computeDigests(rule.workspacePath, results);
+            // 无法计算摘要的文件已记录日志，只跳过这些文件
+            results.removeIf(result -> result.getMd5() == null);
+        }
+
+        return results;
+    }
+
+    /**
+     * 按多条规则扫描原文，所有规则共用一次遍历。
+     * <p>各规则的根目录合并后只遍历一次，每个目录只列出一次，其中的文件交给所有匹配的规则。
+     * 遍历的同时按译文路径去重：规则靠前的优先，同一规则内按遍历顺序靠前的优先，与逐条规则扫描后再去重的结果相同。</p>
+     * <p>单条规则无法扫描时记录错误并跳过，不影响其他规则。</p>
+     *
+     * @param requests 扫描请求，按优先级排列
+     * @return 去重后的扫描结果，按规则顺序排列
+     */
+    public List<FileScanResult> scanAndMapFiles(List<FileScanRequest> requests) {
+        List<RuleScan> rules = prepare(requests);
+        return select(rules, collect(rules, null), null, false);
+    }
+
+    /**
+     * 解析多条扫描请求，无法解析的规则记录错误并跳过
+     */
+    List<RuleScan> prepare(List<FileScanRequest> requests) {
+        List<RuleScan> rules = new ArrayList<>(requests.size());
+        for (int i = 0; i < requests.size(); i++) {
+            try {
+                rules.add(prepare(i, requests.get(i)));
+            } catch (Exception ex) {
+                log.error("扫描文件失败, rule:{}", requests.get(i), ex);
+            }
+        }
+        return rules;
+    }
+
+    /**
+     * 遍历所有规则的根目录，返回全部匹配结果，未去重
+     *
+     * @param directories 接收遍历经过的目录，会在多个线程中同时调用，可以为 null
+     */
+    List<Candidate> collect(List<RuleScan> rules, Consumer<Path> directories) {
+        Queue<Candidate> candidates = new ConcurrentLinkedQueue<>();
+        MatchCollector collector = collector(candidates, directories);
+        if (scanCache != null) {
+            scanCache.begin(fingerprint(rules));
+        }
+        try {
+            walk(rules, collector, scanCache);
+        } catch (IOException | UncheckedIOException ex) {
+            // 遍历中途失败时改为逐条规则扫描，只跳过出错的规则
+            log.warn("合并扫描失败，改为逐条规则扫描: {}", ex.getMessage());
+            candidates.clear();
+            for (RuleScan rule : rules) {
+                try {
+                    for (Path file : findFiles(rule)) {
+                        collector.accept(rule, file);
+                    }
+                } catch (Exception e) {
+                    log.error("扫描文件失败, rule:{}", rule.request, e);
+                }
+            }
+        }
+        return new ArrayList<>(candidates);
+    }
+
+    /**
+     * 遍历一个目录，返回其中的全部匹配结果，未去重。用于目录新建后补充扫描。
+     *
+     * @param dir 目录，位于某条规则的根目录之下，或者包含某条规则的根目录
+     * @param directories 接收遍历经过的目录，会在多个线程中同时调用，可以为 null
+     */
+    List<Candidate> collect(List<RuleScan> rules, Path dir, Consumer<Path> directories) throws IOException {
+        List<Cursor> active = new ArrayList<>();
+        List<RuleScan> pending = new ArrayList<>();
+        for (RuleScan rule : rules) {
+            if (dir.startsWith(rule.rootDir)) {
+                Cursor cursor = Cursor.descend(rule, dir);
+                if (cursor != null) {
+                    active.add(cursor);
+                }
+            } else if (rule.rootDir.startsWith(dir)) {
+                pending.add(rule);
+            }
+        }
+        if (active.isEmpty() && pending.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        Queue<Candidate> candidates = new ConcurrentLinkedQueue<>();
+        invoke(Collections.singletonList(new WalkTask(dir, active, pending, collector(candidates, directories), null)));
+        return new ArrayList<>(candidates);
+    }
+
+    /**
+     * 单个文件在各条规则下的匹配结果，与遍历时的判断相同
+     *
+     * @param file 文件的绝对路径
+     * @return 匹配结果，文件不存在或不匹配任何规则时为空
+     */
+    List<Candidate> match(List<RuleScan> rules, Path file) {
+        if (!Files.exists(file, LinkOption.NOFOLLOW_LINKS) || Files.isDirectory(file, LinkOption.NOFOLLOW_LINKS)) {
+            return Collections.emptyList();
+        }
+
+        List<Candidate> candidates = new ArrayList<>(1);
+        String name = file.getFileName().toString();
+        for (RuleScan rule : rules) {
+            Cursor cursor = Cursor.descend(rule, file.getParent());
+            if (cursor != null && cursor.accept(name)) {
+                candidates.addAll(expand(rule, file));
+            }
+        }
+        return candidates;
+    }
+
+    /**
+     * 按译文路径去重，按规则顺序排列，并按需计算摘要
+     * <p>译文路径相同时规则靠前的优先，同一规则内按遍历顺序靠前的优先，与逐条规则扫描后再去重的结果相同。
+     * 已有摘要的结果在文件大小和修改时间都未变化时不再重复计算，压缩包中的条目按压缩包判断。</p>
+     *
+     * @param candidates 全部匹配结果
+     * @param only 只返回这些源文件的结果，为 null 时返回全部
+     * @param digest 是否计算摘要，为 false 时按扫描请求的设置
+     */
+    List<FileScanResult> select(List<RuleScan> rules, Collection<Candidate> candidates, Set<Path> only, boolean digest) {
+        Map<String, Candidate> kept = new HashMap<>();
+        for (Candidate candidate : candidates) {
+            kept.merge(candidate.result.getTranslationFilePath(), candidate, (a, b) -> {
+                log.debug("Duplicated file:{}", a.result.getTranslationFilePath());
+                return a.compareTo(b) <= 0 ? a : b;
+            });
+        }
 
+        List<Candidate> sorted = new ArrayList<>(kept.values());
+        Collections.sort(sorted);
+
+        List<FileScanResult> results = new ArrayList<>(sorted.size());
+        for (RuleScan rule : rules) {
+            // 按规则分组计算摘要
+            List<FileScanResult> ruleResults = new ArrayList<>();
+            List<FileScanResult> missing = new ArrayList<>();
+            boolean needDigest = digest || rule.request.isDigest();
+            for (Candidate candidate : sorted) {
+                if (candidate.rule == rule && (only == null || only.contains(candidate.file))) {
+                    ruleResults.add(candidate.result);
+                    if (needDigest && !candidate.isDigestCurrent()) {
+                        // 没有摘要，或文件在计算摘要之后有变化。先记录文件状态再计算，计算期间的修改会在下次发现
+                        candidate.stampDigest();
+                        candidate.result.setMd5(null);
+                        missing.add(candidate.result);
+                    }
+                }
+            }
+            if (needDigest) {
+                computeDigests(rule.workspacePath, missing);
+                // 无法计算摘要的文件已记录日志，只跳过这些文件，不影响同一规则的其他文件
+                ruleResults.removeIf(result -> result.getMd5() == null);
+            }
+            results.addAll(ruleResults);
+        }
+        return results;
+    }
+
+    private MatchCollector collector(Queue<Candidate> candidates, Consumer<Path> directories) {
+        return new MatchCollector() {
+            @Override
+            public void accept(RuleScan rule, Path file) {
+                candidates.addAll(expand(rule, file));
+            }
+
+            @Override
+            public void directory(Path dir) {
+                if (directories != null) {
+                    directories.accept(dir);
+                }
+            }
+        };
+    }
+
+    /**
+     * 解析扫描请求，确定遍历的根目录和匹配规则
+     */
+    private RuleScan prepare(int index, FileScanRequest request) throws IOException {
         File workspace = new File(request.getWorkspace());
         if (!FileUtils.isDirectory(workspace)) {
             throw new IllegalArgumentException("工作空间必须是一个目录");
         }
 
         Path workspacePath = Paths.get(workspace.getCanonicalPath());
-        log.warn("Set workspace to: {}", workspacePath);
 
         // 移除路径首个 "/" ，确保输入的是相对路径
         String sourceFilePattern;
@@ -46,6 +289,15 @@ public class FileScanService {
             sourceFilePattern = request.getSourceFilePattern();
         }
 
+        // 压缩包规则遍历工作空间查找压缩包，sourceFilePattern 用于匹配压缩包中的条目
+        String archivePattern = request.getArchivePattern();
+        GlobMatcher entryMatcher = null;
+        String walkPattern = sourceFilePattern;
+        if (archivePattern != null && !archivePattern.trim().isEmpty()) {
+            entryMatcher = new GlobMatcher(sourceFilePattern, request.getIgnores());
+            walkPattern = archivePattern.startsWith("/") ? archivePattern.substring(1) : archivePattern;
+        }
+
         String translationFilePattern;
         if (request.getTranslationFilePattern().startsWith("/")) {
             translationFilePattern = request.getTranslationFilePattern().substring(1);
@@ -53,65 +305,594 @@ public class FileScanService {
             translationFilePattern = request.getTranslationFilePattern();
         }
 
-        // 查找所有匹配的文件
-        List<Path> matchedFiles = findFiles(workspacePath, sourceFilePattern, request.getIgnores());
-
-        // 生成映射结果
-        for (Path file : matchedFiles) {
-            Path targetPath = generateTargetPath(
-                    workspacePath,
-                    file,
-                    request.getSrcLang(),
-                    request.getDestLang(),
-                    translationFilePattern
-            );
-
-            // 转换为相对工作空间的路径，并统一使用"/"
-            String sourceRelativePath = workspacePath.relativize(file).toString().replace("\\", "/");
-            String targetRelativePath = workspacePath.relativize(targetPath).toString().replace("\\", "/");
-
-            FileScanResult result = new FileScanResult();
-            result.setSourceFilePath(sourceRelativePath);
-            result.setTranslationFilePath(targetRelativePath);
-            results.add(result);
-        }
-
-        return results;
-    }
-
-    /**
-     * 查找匹配模式的文件
-     */
-    private List<Path> findFiles(Path baseDir, String pattern, List<String> ignores) throws IOException {
         // 解析glob模式
-        String globPattern = pattern;
-        // 将rootDir声明为final
+        String globPattern = walkPattern;
         Path rootDir;
 
         // 提取glob模式中的根目录（第一个通配符之前的部分）
-        int globStart = pattern.indexOf('*');
-        int globQuestion = pattern.indexOf('?');
+        int globStart = walkPattern.indexOf('*');
+        int globQuestion = walkPattern.indexOf('?');
         int firstWildcard = Integer.MAX_VALUE;
 
         if (globStart != -1) firstWildcard = globStart;
         if (globQuestion != -1) firstWildcard = Math.min(firstWildcard, globQuestion);
 
         if (firstWildcard != Integer.MAX_VALUE) {
-            String rootDirStr = pattern.substring(0, firstWildcard);
+            String rootDirStr = walkPattern.substring(0, firstWildcard);
             rootDirStr = rootDirStr.substring(0, rootDirStr.lastIndexOf('/') + 1);
-            rootDir = baseDir.resolve(rootDirStr).normalize();
-            globPattern = pattern.substring(firstWildcard);
+            rootDir = workspacePath.resolve(rootDirStr).normalize();
+            globPattern = walkPattern.substring(firstWildcard);
         } else {
             // 如果没有通配符，直接使用baseDir
-            rootDir = baseDir;
+            rootDir = workspacePath;
         }
 
+        // 忽略规则只用于压缩包中的条目
+        List<String> ignores = entryMatcher == null ? request.getIgnores() : null;
         GlobPatternFileVisitor visitor = new GlobPatternFileVisitor(rootDir, globPattern, ignores);
+        return new RuleScan(index, request, workspacePath, rootDir, translationFilePattern, visitor, entryMatcher);
+    }
 
-        // 遍历所有文件
-        Files.walkFileTree(rootDir, visitor);
+    /**
+     * 规则匹配的文件对应的扫描结果。压缩包规则从压缩包的中央目录读取条目列表，每个匹配的条目一个结果，不解压条目。
+     */
+    private List<Candidate> expand(RuleScan rule, Path file) {
+        if (rule.entryMatcher == null) {
+            return Collections.singletonList(new Candidate(rule, file, mapFile(rule, file)));
+        }
 
-        return visitor.getResult();
+        List<Candidate> candidates = new ArrayList<>();
+        try (ZipFile zip = new ZipFile(file.toFile())) {
+            Enumeration<? extends ZipEntry> entries = zip.entries();
+            while (entries.hasMoreElements()) {
+                ZipEntry entry = entries.nextElement();
+                if (!entry.isDirectory() && rule.entryMatcher.matches(entry.getName())) {
+                    candidates.add(new Candidate(rule, file, mapEntry(rule, file, entry.getName())));
+                }
+            }
+        } catch (IOException e) {
+            // 损坏或不是 zip 格式的文件不影响其他文件
+            log.warn("读取压缩包失败: {}", file, e);
+        }
+        return candidates;
+    }
+
+    /**
+     * 生成压缩包中单个条目的扫描结果，译文路径按条目在压缩包中的路径生成
+     */
+    private FileScanResult mapEntry(RuleScan rule, Path archive, String entryName) {
+        FileScanRequest request = rule.request;
+        Path targetPath = generateTargetPath(
+                rule.workspacePath,
+                Arrays.asList(entryName.split("/")),
+                request.getSrcLang(),
+                request.getDestLang(),
+                rule.translationFilePattern
+        );
+
+        String archiveRelativePath = rule.workspacePath.relativize(archive).toString().replace("\\", "/");
+        String targetRelativePath = rule.workspacePath.relativize(targetPath).toString().replace("\\", "/");
+
+        FileScanResult result = new FileScanResult();
+        result.setSourceFilePath(archiveRelativePath + SourceFile.ARCHIVE_SEPARATOR + entryName);
+        result.setTranslationFilePath(targetRelativePath);
+        return result;
+    }
+
+    /**
+     * 生成单个文件的扫描结果
+     */
+    private FileScanResult mapFile(RuleScan rule, Path file) {
+        FileScanRequest request = rule.request;
+        Path targetPath = generateTargetPath(
+                rule.workspacePath,
+                file,
+                request.getSrcLang(),
+                request.getDestLang(),
+                rule.translationFilePattern
+        );
+
+        // 转换为相对工作空间的路径，并统一使用"/"
+        String sourceRelativePath = rule.workspacePath.relativize(file).toString().replace("\\", "/");
+        String targetRelativePath = rule.workspacePath.relativize(targetPath).toString().replace("\\", "/");
+
+        FileScanResult result = new FileScanResult();
+        result.setSourceFilePath(sourceRelativePath);
+        result.setTranslationFilePath(targetRelativePath);
+        return result;
+    }
+
+    /**
+     * 在 fork/join 线程池中并行计算源文件摘要。单个文件失败时记录日志，其摘要保持为 null，不影响其他文件。
+     * <p>同一压缩包中的条目作为一个子任务，只打开一次压缩包。</p>
+     */
+    private void computeDigests(Path workspacePath, List<FileScanResult> results) {
+        List<FileScanResult> files = new ArrayList<>();
+        Map<Path, List<FileScanResult>> archives = new LinkedHashMap<>();
+        for (FileScanResult result : results) {
+            SourceFile source = SourceFile.of(workspacePath, result.getSourceFilePath());
+            if (source.isArchiveEntry()) {
+                archives.computeIfAbsent(source.getPath(), k -> new ArrayList<>()).add(result);
+            } else {
+                files.add(result);
+            }
+        }
+
+        List<RecursiveAction> tasks = new ArrayList<>(archives.size() + 1);
+        tasks.add(new DigestTask(workspacePath, files, 0, files.size()));
+        for (Map.Entry<Path, List<FileScanResult>> archive : archives.entrySet()) {
+            tasks.add(new ArchiveDigestTask(workspacePath, archive.getKey(), archive.getValue()));
+        }
+        ForkJoinPool.commonPool().invoke(new RecursiveAction() {
+            @Override
+            protected void compute() {
+                invokeAll(tasks);
+            }
+        });
+    }
+
+    private void digest(Path workspacePath, FileScanResult result, ZipFile zip) {
+        SourceFile source = SourceFile.of(workspacePath, result.getSourceFilePath());
+        try {
+            result.setMd5(hashManifest != null ? hashManifest.md5Hex(source, zip) : source.md5Hex(zip));
+        } catch (IOException | UncheckedIOException e) {
+            // 例如扫描之后文件被删除
+            log.warn("计算摘要失败: {}", result.getSourceFilePath(), e);
+        }
+    }
+
+    private class DigestTask extends RecursiveAction {
+        private final transient Path workspacePath;
+        private final transient List<FileScanResult> results;
+        private final int from;
+        private final int to;
+
+        DigestTask(Path workspacePath, List<FileScanResult> results, int from, int to) {
+            this.workspacePath = workspacePath;
+            this.results = results;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= DIGEST_BATCH_SIZE) {
+                for (int i = from; i < to; i++) {
+                    digest(workspacePath, results.get(i), null);
+                }
+                return;
+            }
+            int mid = (from + to) >>> 1;
+            invokeAll(new DigestTask(workspacePath, results, from, mid),
+                    new DigestTask(workspacePath, results, mid, to));
+        }
+    }
+
+    /**
+     * 计算同一压缩包中多个条目的摘要，所有条目从同一个 {@link ZipFile} 读取
+     */
+    private class ArchiveDigestTask extends RecursiveAction {
+        private final transient Path workspacePath;
+        private final transient Path archive;
+        private final transient List<FileScanResult> results;
+
+        ArchiveDigestTask(Path workspacePath, Path archive, List<FileScanResult> results) {
+            this.workspacePath = workspacePath;
+            this.archive = archive;
+            this.results = results;
+        }
+
+        @Override
+        protected void compute() {
+            try (ZipFile zip = new ZipFile(archive.toFile())) {
+                for (FileScanResult result : results) {
+                    digest(workspacePath, result, zip);
+                }
+            } catch (IOException e) {
+                // 例如扫描之后压缩包被删除，其中的条目都没有摘要
+                log.warn("读取压缩包失败: {}", archive, e);
+            }
+        }
+    }
+
+    /**
+     * 查找单条规则匹配的文件，按遍历顺序排列
+     */
+    private List<Path> findFiles(RuleScan rule) throws IOException {
+        if (!Files.isDirectory(rule.rootDir, LinkOption.NOFOLLOW_LINKS)) {
+            // 根目录不存在或不是目录，由 walkFileTree 按原有方式处理
+            Files.walkFileTree(rule.rootDir, rule.visitor);
+            return rule.visitor.getResult();
+        }
+
+        Queue<Path> matched = new ConcurrentLinkedQueue<>();
+        walk(Collections.singletonList(rule), (r, file) -> matched.add(file), null);
+
+        List<Path> files = new ArrayList<>(matched);
+        files.sort(FileScanService::comparePaths);
+        return files;
+    }
+
+    /**
+     * 遍历所有规则的根目录。根目录位于其他规则根目录之下时不单独遍历，而是在经过时加入。
+     * 根目录不是目录的规则单独按原有方式处理。
+     *
+     * @param cache 扫描结果缓存，记录的内容必须与 rules 对应，可以为 null
+     */
+    private void walk(List<RuleScan> rules, MatchCollector collector, ScanCache cache) throws IOException {
+        List<RuleScan> walkable = new ArrayList<>(rules.size());
+        for (RuleScan rule : rules) {
+            if (Files.isDirectory(rule.rootDir, LinkOption.NOFOLLOW_LINKS)) {
+                walkable.add(rule);
+            } else {
+                try {
+                    for (Path file : findFiles(rule)) {
+                        collector.accept(rule, file);
+                    }
+                } catch (IOException e) {
+                    log.error("扫描文件失败, rule:{}", rule.request, e);
+                }
+            }
+        }
+
+        List<WalkTask> tasks = new ArrayList<>();
+        Set<Path> roots = new LinkedHashSet<>();
+        for (RuleScan rule : walkable) {
+            boolean nested = false;
+            for (RuleScan other : walkable) {
+                if (!other.rootDir.equals(rule.rootDir) && rule.rootDir.startsWith(other.rootDir)) {
+                    nested = true;
+                    break;
+                }
+            }
+            if (!nested) {
+                roots.add(rule.rootDir);
+            }
+        }
+        for (Path root : roots) {
+            List<Cursor> active = new ArrayList<>();
+            List<RuleScan> pending = new ArrayList<>();
+            for (RuleScan rule : walkable) {
+                if (rule.rootDir.equals(root)) {
+                    Cursor cursor = Cursor.root(rule);
+                    if (cursor != null) {
+                        active.add(cursor);
+                    }
+                } else if (rule.rootDir.startsWith(root)) {
+                    pending.add(rule);
+                }
+            }
+            if (!active.isEmpty() || !pending.isEmpty()) {
+                tasks.add(new WalkTask(root, active, pending, collector, cache));
+            }
+        }
+
+        invoke(tasks);
+    }
+
+    /**
+     * 在 fork/join 线程池中并行遍历所有文件
+     */
+    private static void invoke(List<WalkTask> tasks) throws IOException {
+        try {
+            ForkJoinPool.commonPool().invoke(new RecursiveAction() {
+                @Override
+                protected void compute() {
+                    invokeAll(tasks);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * 接收规则匹配的文件，会在多个线程中同时调用
+     */
+    @FunctionalInterface
+    private interface MatchCollector {
+        void accept(RuleScan rule, Path file);
+
+        /**
+         * 开始列出一个目录
+         */
+        default void directory(Path dir) {
+        }
+    }
+
+    /**
+     * 遍历一个目录，每个子目录作为一个子任务，空闲线程可以窃取未开始的子目录。
+     * <p>与 {@link Files#walkFileTree} 一样不跟随符号链接。目录只列出一次，其中的文件交给所有生效的规则；
+     * 被某条规则忽略或不可能匹配的子目录只对该规则跳过，所有规则都不需要的子目录不再进入。</p>
+     * <p>有扫描结果缓存时，修改时间未变化的目录不再列出，直接使用上次记录的子目录和匹配的文件。</p>
+     */
+    private static class WalkTask extends RecursiveAction {
+        private final transient Path dir;
+        private final transient List<Cursor> active;// 根目录包含当前目录的规则
+        private final transient List<RuleScan> pending;// 根目录位于当前目录之下的规则
+        private final transient MatchCollector collector;
+        private final transient ScanCache cache;
+
+        WalkTask(Path dir, List<Cursor> active, List<RuleScan> pending, MatchCollector collector, ScanCache cache) {
+            this.dir = dir;
+            this.active = active;
+            this.pending = pending;
+            this.collector = collector;
+            this.cache = cache;
+        }
+
+        @Override
+        protected void compute() {
+            collector.directory(dir);
+            List<WalkTask> subtasks = new ArrayList<>();
+            try {
+                // 修改时间必须在列出目录之前读取，列出过程中的变化留到下次扫描发现
+                long mtime = cache == null ? 0 : Files.getLastModifiedTime(dir, LinkOption.NOFOLLOW_LINKS).toMillis();
+                DirectoryScanEntry cached = cache == null ? null : cache.get(dir, mtime);
+                if (cached != null) {
+                    for (String name : cached.getDirs()) {
+                        WalkTask subtask = subtask(dir.resolve(name), name);
+                        if (subtask != null) {
+                            subtasks.add(subtask);
+                        }
+                    }
+                    for (String name : cached.getFiles()) {
+                        acceptFile(dir.resolve(name), name);
+                    }
+                } else {
+                    List<String> dirs = new ArrayList<>();
+                    List<String> files = new ArrayList<>();
+                    try (DirectoryStream<Path> stream = Files.newDirectoryStream(dir)) {
+                        for (Path child : stream) {
+                            String name = child.getFileName().toString();
+                            if (Files.isDirectory(child, LinkOption.NOFOLLOW_LINKS)) {
+                                WalkTask subtask = subtask(child, name);
+                                if (subtask != null) {
+                                    subtasks.add(subtask);
+                                    dirs.add(name);
+                                }
+                            } else if (acceptFile(child, name)) {
+                                files.add(name);
+                            }
+                        }
+                    }
+                    if (cache != null) {
+                        cache.put(dir, mtime, dirs, files);
+                    }
+                }
+            } catch (IOException e) {
+                log.error("访问文件失败: {}", dir, e);
+                throw new UncheckedIOException(e);
+            }
+            invokeAll(subtasks);
+        }
+
+        /**
+         * 把文件交给所有匹配的规则
+         *
+         * @return 是否有规则匹配
+         */
+        private boolean acceptFile(Path file, String name) {
+            boolean matched = false;
+            for (Cursor cursor : active) {
+                if (cursor.accept(name)) {
+                    collector.accept(cursor.rule, file);
+                    matched = true;
+                }
+            }
+            return matched;
+        }
+
+        private WalkTask subtask(Path child, String name) {
+            List<Cursor> childActive = new ArrayList<>(active.size());
+            for (Cursor cursor : active) {
+                Cursor next = cursor.enter(name);
+                if (next != null) {
+                    childActive.add(next);
+                }
+            }
+
+            List<RuleScan> childPending = Collections.emptyList();
+            for (RuleScan rule : pending) {
+                if (rule.rootDir.equals(child)) {
+                    Cursor cursor = Cursor.root(rule);
+                    if (cursor != null) {
+                        childActive.add(cursor);
+                    }
+                } else if (rule.rootDir.startsWith(child)) {
+                    if (childPending.isEmpty()) {
+                        childPending = new ArrayList<>();
+                    }
+                    childPending.add(rule);
+                }
+            }
+
+            if (childActive.isEmpty() && childPending.isEmpty()) {
+                return null;
+            }
+            return new WalkTask(child, childActive, childPending, collector, cache);
+        }
+    }
+
+    /**
+     * 一条规则在某个目录中的位置：相对于规则根目录的路径，以及源文件规则的匹配状态
+     */
+    private static final class Cursor {
+        private final RuleScan rule;
+        private final String relativeDir;// 空字符串表示规则的根目录
+        private final int state;
+
+        private Cursor(RuleScan rule, String relativeDir, int state) {
+            this.rule = rule;
+            this.relativeDir = relativeDir;
+            this.state = state;
+        }
+
+        /**
+         * @return 规则根目录的位置，根目录被忽略时返回 null
+         */
+        private static Cursor root(RuleScan rule) {
+            GlobMatcher matcher = rule.visitor.getMatcher();
+            return matcher.isIgnored("") ? null : new Cursor(rule, "", matcher.start());
+        }
+
+        /**
+         * 从规则的根目录逐层进入到指定目录
+         *
+         * @return 目录的位置，目录不在根目录之下、被忽略或不可能有匹配的文件时返回 null
+         */
+        private static Cursor descend(RuleScan rule, Path dir) {
+            if (!dir.startsWith(rule.rootDir)) {
+                return null;
+            }
+            Cursor cursor = root(rule);
+            if (dir.equals(rule.rootDir)) {
+                return cursor;
+            }
+            for (Path name : rule.rootDir.relativize(dir)) {
+                if (cursor == null) {
+                    break;
+                }
+                cursor = cursor.enter(name.toString());
+            }
+            return cursor;
+        }
+
+        /**
+         * @return 子目录的位置，子目录被忽略或不可能有匹配的文件时返回 null
+         */
+        private Cursor enter(String name) {
+            GlobMatcher matcher = rule.visitor.getMatcher();
+            int next = matcher.enter(state, name);
+            if (next == GlobMatcher.NONE) {
+                return null;
+            }
+            String relative = resolve(name);
+            return matcher.isIgnored(relative) ? null : new Cursor(rule, relative, next);
+        }
+
+        private boolean accept(String name) {
+            return rule.visitor.getMatcher().matches(resolve(name));
+        }
+
+        private String resolve(String name) {
+            return relativeDir.isEmpty() ? name : relativeDir + "/" + name;
+        }
+    }
+
+    /**
+     * 扫描规则指纹，用于判断扫描结果缓存是否可用。只包含决定遍历和匹配结果的内容，与工作空间的位置无关。
+     */
+    private static String fingerprint(List<RuleScan> rules) {
+        MessageDigest digest = FileDigests.newMd5();
+        for (RuleScan rule : rules) {
+            FileScanRequest request = rule.request;
+            String line = rule.workspacePath.relativize(rule.rootDir) + "\n"
+                    + request.getArchivePattern() + "\n"
+                    + request.getSourceFilePattern() + "\n"
+                    + request.getIgnores() + "\n";
+            digest.update(line.getBytes(StandardCharsets.UTF_8));
+        }
+        return Hex.encodeHexString(digest.digest());
+    }
+
+    /**
+     * 按目录逐层比较名称，与按名称排序的深度优先遍历顺序一致
+     */
+    private static int comparePaths(Path a, Path b) {
+        int n = Math.min(a.getNameCount(), b.getNameCount());
+        for (int i = 0; i < n; i++) {
+            int c = a.getName(i).toString().compareTo(b.getName(i).toString());
+            if (c != 0) {
+                return c;
+            }
+        }
+        return Integer.compare(a.getNameCount(), b.getNameCount());
+    }
+
+    /**
+     * 一条规则的扫描参数
+     */
+    static final class RuleScan {
+        private final int index;// 规则的优先级，越小越优先
+        private final FileScanRequest request;
+        private final Path workspacePath;
+        private final Path rootDir;
+        private final String translationFilePattern;
+        private final GlobPatternFileVisitor visitor;
+        private final GlobMatcher entryMatcher;// 压缩包中条目的匹配规则，普通规则为 null
+
+        private RuleScan(int index, FileScanRequest request, Path workspacePath, Path rootDir,
+                         String translationFilePattern, GlobPatternFileVisitor visitor, GlobMatcher entryMatcher) {
+            this.index = index;
+            this.request = request;
+            this.workspacePath = workspacePath;
+            this.rootDir = rootDir;
+            this.translationFilePattern = translationFilePattern;
+            this.visitor = visitor;
+            this.entryMatcher = entryMatcher;
+        }
+    }
+
+    /**
+     * 译文路径相同的多个结果中，规则靠前的优先，同一规则内遍历顺序靠前的优先
+     */
+    static final class Candidate implements Comparable<Candidate> {
+        private final RuleScan rule;
+        private final Path file;
+        private final FileScanResult result;
+        private volatile long[] digestStamp;// 计算摘要前文件的大小和修改时间，为 null 时摘要不可复用
+
+        private Candidate(RuleScan rule, Path file, FileScanResult result) {
+            this.rule = rule;
+            this.file = file;
+            this.result = result;
+        }
+
+        Path getFile() {
+            return file;
+        }
+
+        /**
+         * @return 已有摘要，且文件的大小和修改时间与计算摘要时相同
+         */
+        boolean isDigestCurrent() {
+            long[] stamp = digestStamp;
+            return result.getMd5() != null && stamp != null && Arrays.equals(stamp, stat(file));
+        }
+
+        /**
+         * 记录计算摘要前文件的大小和修改时间
+         */
+        void stampDigest() {
+            digestStamp = stat(file);
+        }
+
+        /**
+         * @return 文件的大小和修改时间，无法读取或刚被修改时返回 null
+         */
+        private static long[] stat(Path file) {
+            try {
+                BasicFileAttributes attrs = Files.readAttributes(file, BasicFileAttributes.class);
+                long mtime = attrs.lastModifiedTime().toMillis();
+                if (System.currentTimeMillis() - mtime < RACY_WINDOW_MILLIS) {
+                    return null;
+                }
+                return new long[]{attrs.size(), mtime};
+            } catch (IOException e) {
+                return null;
+            }
+        }
+
+        @Override
+        public int compareTo(Candidate other) {
+            int c = Integer.compare(rule.index, other.rule.index);
+            if (c == 0) {
+                c = comparePaths(file, other.file);
+            }
+            // 同一个压缩包中的条目按路径排序
+            return c != 0 ? c : result.getSourceFilePath().compareTo(other.result.getSourceFilePath());
+        }
     }
 
     /**
@@ -129,6 +910,20 @@ public class FileScanService {
         Path relativeToWorkspace = workspacePath.relativize(sourceFile);
         List<String> pathSegments = new ArrayList<>();
         relativeToWorkspace.forEach(segment -> pathSegments.add(segment.toString()));
+        return generateTargetPath(workspacePath, pathSegments, sourceLanguage, targetLanguage, translationPattern);
+    }
+
+    /**
+     * 按源文件的路径片段生成目标文件路径
+     *
+     * @param pathSegments 源文件路径按目录拆分的片段，最后一个是文件名
+     */
+    private Path generateTargetPath(
+            Path workspacePath,
+            List<String> pathSegments,
+            String sourceLanguage,
+            String targetLanguage,
+            String translationPattern) {
         int segmentCount = pathSegments.size();
 
         // 提取语言文件夹之前的路径部分（%original_path_pre%）
@@ -0,0 +1,277 @@
+package io.github.tfgcn.transsync.service;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+/**
+ * desc: 编译后的源文件与忽略规则
+ * <p>glob 语法与 {@link java.nio.file.FileSystem#getPathMatcher} 相同，路径统一使用 "/" 分隔。
+ * 所有忽略规则合并为一个正则表达式，每个路径只需匹配一次。</p>
+ * <p>源文件规则按 "/" 拆成若干层，每一层单独编译，用于判断一个目录下是否可能有匹配的文件：
+ * 从根目录开始，每进入一层目录就用对应层的规则匹配目录名，匹配失败的目录直接跳过；
+ * 遇到含有 "**" 的层之后，下面的任何路径都可能匹配，不再检查。状态用整数表示，不需要拼接或拆分路径。</p>
+ *
+ * @author yanmaoyuan
+ */
+public final class GlobMatcher {
+
+    /**
+     * 目录下不可能有匹配的文件
+     */
+    public static final int NONE = -1;
+    /**
+     * 目录下的任何文件都可能匹配
+     */
+    public static final int ANY = Integer.MAX_VALUE;
+
+    private static final boolean IGNORE_CASE = File.separatorChar == '\\';
+
+    private final Pattern source;
+    private final Pattern ignore;// 没有忽略规则时为 null
+    private final Pattern[] segments;// 源文件规则的各层，无法拆分时为 null
+    private final int anyFrom;// 第一个含有 "**" 的层
+
+    /**
+     * @param sourcePattern 源文件规则，相对于遍历的根目录
+     * @param ignores 忽略规则，可以为 null
+     */
+    public GlobMatcher(String sourcePattern, List<String> ignores) {
+        source = compile(toRegex(sourcePattern));
+
+        if (ignores == null || ignores.isEmpty()) {
+            ignore = null;
+        } else {
+            StringBuilder regex = new StringBuilder();
+            for (String glob : ignores) {
+                if (regex.length() > 0) {
+                    regex.append('|');
+                }
+                regex.append("(?:").append(toRegex(glob)).append(')');
+            }
+            ignore = compile(regex.toString());
+        }
+
+        List<String> parts = splitSegments(sourcePattern);
+        if (parts == null) {
+            segments = null;
+            anyFrom = 0;
+        } else {
+            segments = new Pattern[parts.size()];
+            int first = parts.size();
+            for (int i = 0; i < parts.size(); i++) {
+                String part = parts.get(i);
+                if (part.contains("**")) {
+                    first = Math.min(first, i);
+                } else {
+                    segments[i] = compile(toRegex(part));
+                }
+            }
+            anyFrom = first;
+        }
+    }
+
+    /**
+     * @param relativePath 相对于根目录的路径
+     * @return 是否被忽略
+     */
+    public boolean isIgnored(String relativePath) {
+        return ignore != null && ignore.matcher(relativePath).matches();
+    }
+
+    /**
+     * @param relativePath 相对于根目录的文件路径
+     * @return 是否匹配源文件规则且未被忽略
+     */
+    public boolean matches(String relativePath) {
+        return !isIgnored(relativePath) && source.matcher(relativePath).matches();
+    }
+
+    /**
+     * @return 根目录的状态
+     */
+    public int start() {
+        return segments == null || anyFrom == 0 ? ANY : 0;
+    }
+
+    /**
+     * 进入子目录
+     *
+     * @param state 当前目录的状态
+     * @param name 子目录名称
+     * @return 子目录的状态，子目录下不可能有匹配的文件时返回 {@link #NONE}
+     */
+    public int enter(int state, String name) {
+        if (state == ANY || state >= anyFrom) {
+            return ANY;
+        }
+        if (state == NONE || state >= segments.length - 1) {
+            // 子目录之下至少还需要一层文件名
+            return NONE;
+        }
+        return segments[state].matcher(name).matches() ? state + 1 : NONE;
+    }
+
+    /**
+     * 按 "/" 拆分规则，"/" 出现在 [] 或 {} 中时无法拆分，返回 null
+     */
+    private static List<String> splitSegments(String glob) {
+        List<String> parts = new ArrayList<>();
+        int start = 0;
+        boolean inClass = false;
+        boolean inGroup = false;
+        for (int i = 0; i < glob.length(); i++) {
+            char c = glob.charAt(i);
+            if (c == '\\') {
+                i++;
+            } else if (c == '[') {
+                inClass = true;
+            } else if (c == ']') {
+                inClass = false;
+            } else if (c == '{') {
+                inGroup = true;
+            } else if (c == '}') {
+                inGroup = false;
+            } else if (c == '/') {
+                if (inClass || inGroup) {
+                    return null;
+                }
+                parts.add(glob.substring(start, i));
+                start = i + 1;
+            }
+        }
+        parts.add(glob.substring(start));
+        return parts;
+    }
+
+    private static Pattern compile(String regex) {
+        return IGNORE_CASE ? Pattern.compile(regex, Pattern.CASE_INSENSITIVE | Pattern.UNICODE_CASE) : Pattern.compile(regex);
+    }
+
+    /**
+     * 把 glob 转换为正则表达式，规则与 JDK 的 Unix 实现一致
+     */
+    static String toRegex(String glob) {
+        StringBuilder regex = new StringBuilder();
+        boolean inGroup = false;
+
+        int i = 0;
+        while (i < glob.length()) {
+            char c = glob.charAt(i++);
+            switch (c) {
+                case '\\':
+                    if (i == glob.length()) {
+                        throw new PatternSyntaxException("No character to escape", glob, i - 1);
+                    }
+                    appendLiteral(regex, glob.charAt(i++));
+                    break;
+                case '/':
+                    regex.append('/');
+                    break;
+                case '[':
+                    regex.append("[[^/]&&[");
+                    if (i < glob.length() && glob.charAt(i) == '^') {
+                        regex.append("\\^");
+                        i++;
+                    } else {
+                        if (i < glob.length() && glob.charAt(i) == '!') {
+                            regex.append('^');
+                            i++;
+                        }
+                        if (i < glob.length() && glob.charAt(i) == '-') {
+                            regex.append('-');
+                            i++;
+                        }
+                    }
+                    boolean hasRangeStart = false;
+                    char last = 0;
+                    while (i < glob.length()) {
+                        c = glob.charAt(i++);
+                        if (c == ']') {
+                            break;
+                        }
+                        if (c == '/') {
+                            throw new PatternSyntaxException("Explicit 'name separator' in class", glob, i - 1);
+                        }
+                        if (c == '\\' || c == '[' || c == '&' && i < glob.length() && glob.charAt(i) == '&') {
+                            regex.append('\\');
+                        }
+                        regex.append(c);
+
+                        if (c == '-') {
+                            if (!hasRangeStart) {
+                                throw new PatternSyntaxException("Invalid range", glob, i - 1);
+                            }
+                            if (i == glob.length()) {
+                                break;
+                            }
+                            c = glob.charAt(i++);
+                            if (c < last) {
+                                throw new PatternSyntaxException("Invalid range", glob, i - 3);
+                            }
+                            regex.append(c);
+                            hasRangeStart = false;
+                        } else {
+                            hasRangeStart = true;
+                            last = c;
+                        }
+                    }
+                    if (c != ']') {
+                        throw new PatternSyntaxException("Missing ']'", glob, i - 1);
+                    }
+                    regex.append("]]");
+                    break;
+                case '{':
+                    if (inGroup) {
+                        throw new PatternSyntaxException("Cannot nest groups", glob, i - 1);
+                    }
+                    regex.append("(?:(?:");
+                    inGroup = true;
+                    break;
+                case '}':
+                    if (inGroup) {
+                        regex.append("))");
+                        inGroup = false;
+                    } else {
+                        regex.append('}');
+                    }
+                    break;
+                case ',':
+                    if (inGroup) {
+                        regex.append(")|(?:");
+                    } else {
+                        regex.append(',');
+                    }
+                    break;
+                case '*':
+                    if (i < glob.length() && glob.charAt(i) == '*') {
+                        // 跨目录匹配
+                        regex.append(".*");
+                        i++;
+                    } else {
+                        regex.append("[^/]*");
+                    }
+                    break;
+                case '?':
+                    regex.append("[^/]");
+                    break;
+                default:
+                    appendLiteral(regex, c);
+            }
+        }
+
+        if (inGroup) {
+            throw new PatternSyntaxException("Missing '}'", glob, i - 1);
+        }
+        return regex.toString();
+    }
+
+    private static void appendLiteral(StringBuilder regex, char c) {
+        if ("\\^$.|?*+()[]{}".indexOf(c) >= 0) {
+            regex.append('\\');
+        }
+        regex.append(c);
+    }
+}
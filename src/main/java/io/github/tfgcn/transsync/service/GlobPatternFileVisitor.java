@@ -7,7 +7,6 @@ import java.io.IOException;
 import java.nio.file.*;
 import java.nio.file.attribute.BasicFileAttributes;
 import java.util.ArrayList;
-import java.util.Collections;
 import java.util.List;
 
 /**
@@ -19,58 +18,56 @@ import java.util.List;
 public class GlobPatternFileVisitor extends SimpleFileVisitor<Path> {
 
     private final Path rootDir;
-    private final PathMatcher matcher;
-    private final List<PathMatcher> ignoreMatchers;
+    @Getter
+    private final GlobMatcher matcher;
     @Getter
     private final List<Path> result;
 
     public GlobPatternFileVisitor(Path rootDir, String sourcePattern, List<String> ignores) {
         this.rootDir = rootDir;
         this.result = new ArrayList<>();
-
-        this.matcher = FileSystems.getDefault().getPathMatcher("glob:" + sourcePattern);
-
-        if (ignores == null || ignores.isEmpty()) {
-            this.ignoreMatchers = Collections.emptyList();
-        } else {
-            this.ignoreMatchers = new ArrayList<>(ignores.size());
-            for (String ignore : ignores) {
-                // 支持glob模式的忽略规则，如**/.git/**、*.tmp等
-                this.ignoreMatchers.add(FileSystems.getDefault().getPathMatcher("glob:" + ignore));
-            }
-        }
+        // 支持glob模式的忽略规则，如**/.git/**、*.tmp等
+        this.matcher = new GlobMatcher(sourcePattern, ignores);
     }
 
     @Override
     public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) {
-        Path relativeDir = rootDir.relativize(dir);
-        for (PathMatcher ignore : ignoreMatchers) {
-            if (ignore.matches(relativeDir)) {
-                return FileVisitResult.SKIP_SUBTREE;
-            }
-        }
-        return FileVisitResult.CONTINUE;
+        return isIgnoredDirectory(dir) ? FileVisitResult.SKIP_SUBTREE : FileVisitResult.CONTINUE;
     }
 
     @Override
     public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
-        // 获取相对于根目录的路径用于匹配
-        Path relativePath = rootDir.relativize(file);
-
-        // 检查文件是否需要被忽略
-        for (PathMatcher ignore : ignoreMatchers) {
-            if (ignore.matches(relativePath)) {
-                return FileVisitResult.CONTINUE;
-            }
-        }
-
-        // 检查文件是否匹配目标模式
-        if (matcher.matches(relativePath)) {
+        if (accept(file)) {
             result.add(file);
         }
         return FileVisitResult.CONTINUE;
     }
 
+    /**
+     * 目录是否被忽略，被忽略的目录不再进入。可在多个线程中同时调用。
+     *
+     * @param dir 目录
+     */
+    public boolean isIgnoredDirectory(Path dir) {
+        return matcher.isIgnored(relativize(dir));
+    }
+
+    /**
+     * 文件是否匹配目标模式且未被忽略。可在多个线程中同时调用。
+     *
+     * @param file 文件
+     */
+    public boolean accept(Path file) {
+        return matcher.matches(relativize(file));
+    }
+
+    /**
+     * 获取相对于根目录的路径用于匹配，统一使用"/"
+     */
+    private String relativize(Path path) {
+        return rootDir.relativize(path).toString().replace('\\', '/');
+    }
+
     @Override
     public FileVisitResult visitFileFailed(Path file, IOException exc) throws IOException {
         log.error("访问文件失败: {}", file, exc);
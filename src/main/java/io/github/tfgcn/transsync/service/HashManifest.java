@@ -0,0 +1,185 @@
+package io.github.tfgcn.transsync.service;
+
+import com.google.gson.reflect.TypeToken;
+import io.github.tfgcn.transsync.service.model.FileHashEntry;
+import io.github.tfgcn.transsync.utils.FileDigests;
+import io.github.tfgcn.transsync.utils.JsonUtils;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.nio.file.*;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.zip.ZipFile;
+
+import static io.github.tfgcn.transsync.Constants.*;
+
+/**
+ * desc: 工作空间内的文件摘要清单
+ * <p>以相对路径为键，记录文件大小、修改时间和MD5。大小和修改时间都未变化时直接复用记录的MD5，不再读取文件内容。
+ * 压缩包中的条目记录的是压缩包的大小和修改时间。</p>
+ * <p>清单保存在 workspace/.transsync/hashes.json。</p>
+ *
+ * @author yanmaoyuan
+ */
+@Slf4j
+public class HashManifest {
+
+    /**
+     * 修改时间距今小于此值的文件不写入清单。
+     * 文件系统的时间精度有限，同一时间片内的再次修改无法通过 mtime 识别。
+     */
+    private static final long RACY_WINDOW_MILLIS = 2000L;
+
+    private final Path workspace;
+    private final Path manifestFile;
+    private final Map<String, FileHashEntry> entries;
+    private volatile boolean dirty;
+
+    private HashManifest(Path workspace, Map<String, FileHashEntry> entries) {
+        this.workspace = workspace;
+        this.manifestFile = workspace.resolve(WORKSPACE_DATA_DIR).resolve(HASH_MANIFEST_FILE);
+        this.entries = new ConcurrentHashMap<>(entries);
+    }
+
+    /**
+     * 加载工作空间中的摘要清单，清单不存在或已损坏时返回空清单。
+     *
+     * @param workspace 工作空间
+     * @return 摘要清单
+     */
+    public static HashManifest load(Path workspace) {
+        Path file = workspace.resolve(WORKSPACE_DATA_DIR).resolve(HASH_MANIFEST_FILE);
+        Map<String, FileHashEntry> entries = null;
+        if (Files.isRegularFile(file)) {
+            try {
+                Type type = new TypeToken<Map<String, FileHashEntry>>() {}.getType();
+                entries = JsonUtils.readFile(file.toFile(), type);
+            } catch (Exception e) {
+                log.warn("Ignore broken hash manifest: {}", file, e);
+            }
+        }
+        if (entries == null) {
+            entries = new TreeMap<>();
+        }
+        return new HashManifest(workspace, entries);
+    }
+
+    /**
+     * 获取文件内容的MD5，文件未变化时不读取文件。
+     *
+     * @param file 文件
+     * @return 小写十六进制的MD5
+     */
+    public String md5Hex(File file) throws IOException {
+        Path path = file.toPath().toAbsolutePath().normalize();
+        if (!path.startsWith(workspace)) {
+            // 工作空间以外的文件不缓存
+            return digest(path);
+        }
+
+        String key = getKey(path);
+        BasicFileAttributes attrs = Files.readAttributes(path, BasicFileAttributes.class);
+        long size = attrs.size();
+        long mtime = attrs.lastModifiedTime().toMillis();
+
+        FileHashEntry entry = entries.get(key);
+        if (entry != null && entry.getSize() == size && entry.getMtime() == mtime) {
+            return entry.getMd5();
+        }
+
+        String md5 = digest(path);
+        put(key, size, mtime, md5);
+        return md5;
+    }
+
+    /**
+     * 获取源文件内容的MD5。压缩包中的条目以压缩包的大小和修改时间判断是否变化，压缩包未变化时不读取条目。
+     *
+     * @param source 源文件
+     * @return 小写十六进制的MD5
+     */
+    public String md5Hex(SourceFile source) throws IOException {
+        return md5Hex(source, null);
+    }
+
+    /**
+     * 获取源文件内容的MD5，压缩包中的条目需要重新计算时从已打开的压缩包中读取
+     *
+     * @param source 源文件
+     * @param zip 条目所在的压缩包，为 null 时按需打开
+     * @return 小写十六进制的MD5
+     */
+    public String md5Hex(SourceFile source, ZipFile zip) throws IOException {
+        if (!source.isArchiveEntry()) {
+            return md5Hex(source.getPath().toFile());
+        }
+
+        Path archive = source.getPath().toAbsolutePath().normalize();
+        if (!archive.startsWith(workspace)) {
+            // 工作空间以外的文件不缓存
+            return source.md5Hex(zip);
+        }
+
+        String key = getKey(archive) + SourceFile.ARCHIVE_SEPARATOR + source.getEntry();
+        BasicFileAttributes attrs = Files.readAttributes(archive, BasicFileAttributes.class);
+        long size = attrs.size();
+        long mtime = attrs.lastModifiedTime().toMillis();
+
+        FileHashEntry entry = entries.get(key);
+        if (entry != null && entry.getSize() == size && entry.getMtime() == mtime) {
+            return entry.getMd5();
+        }
+
+        String md5 = source.md5Hex(zip);
+        put(key, size, mtime, md5);
+        return md5;
+    }
+
+    /**
+     * 保存清单。清单未变化时不写文件。
+     */
+    public synchronized void save() throws IOException {
+        if (!dirty) {
+            return;
+        }
+        // 先清除标记，保存期间新增的记录会重新标记；保存失败时恢复标记，下次继续保存
+        dirty = false;
+        try {
+            Files.createDirectories(manifestFile.getParent());
+            Path temp = manifestFile.resolveSibling(HASH_MANIFEST_FILE + ".tmp");
+            JsonUtils.writeFile(temp.toFile(), new TreeMap<>(entries));
+            Files.move(temp, manifestFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException | RuntimeException e) {
+            dirty = true;
+            throw e;
+        }
+        log.debug("Hash manifest saved: {} entries", entries.size());
+    }
+
+    private void put(String key, long size, long mtime, String md5) {
+        if (System.currentTimeMillis() - mtime < RACY_WINDOW_MILLIS) {
+            // 文件刚被修改，记录的 mtime 不可信
+            if (entries.remove(key) != null) {
+                dirty = true;
+            }
+            return;
+        }
+        FileHashEntry old = entries.put(key, new FileHashEntry(size, mtime, md5));
+        if (old == null || old.getSize() != size || old.getMtime() != mtime || !md5.equals(old.getMd5())) {
+            dirty = true;
+        }
+    }
+
+    private String getKey(Path path) {
+        return workspace.relativize(path).toString().replace("\\", SEPARATOR);
+    }
+
+    private static String digest(Path path) throws IOException {
+        return FileDigests.md5Hex(path);
+    }
+}
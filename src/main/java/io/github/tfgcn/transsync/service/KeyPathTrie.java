@@ -0,0 +1,341 @@
+package io.github.tfgcn.transsync.service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * desc: 词条路径字典树
+ * <p>词条路径形如 "pages->0->text"，每一层是树上的一个节点，用整数编号表示。遍历 JSON 时按层查找子节点，
+ * 不需要拼接路径字符串，只有调用 {@link #keyOf(int)} 时才会生成完整路径。</p>
+ * <p>子节点保存在以 (父节点, 名称) 为键的开放寻址表中，数组下标可以直接用整数查找，不需要先转成字符串。</p>
+ * <p>路径的含义与字符串拼接完全一致：名称中含有 "->" 时会拆成多层，顶层的空名称不增加层级。</p>
+ *
+ * @author yanmaoyuan
+ */
+public final class KeyPathTrie {
+
+    /**
+     * 根节点，对应空路径
+     */
+    public static final int ROOT = 0;
+    /**
+     * 不存在的节点
+     */
+    public static final int NONE = -1;
+
+    private static final String SEPARATOR = "->";
+    private static final int INITIAL_CAPACITY = 64;
+
+    private int size;// 节点数
+    private int[] parents;
+    private String[] segments;
+    private int[] table;// 开放寻址表，存放节点编号，NONE 表示空位
+    private String[] pool = new String[INITIAL_CAPACITY];// 名称字符串池
+    private int poolSize;
+
+    public KeyPathTrie() {
+        this(INITIAL_CAPACITY);
+    }
+
+    /**
+     * @param expectedKeys 预计的词条数
+     */
+    public KeyPathTrie(int expectedKeys) {
+        int capacity = Math.max(INITIAL_CAPACITY, expectedKeys);
+        parents = new int[capacity];
+        segments = new String[capacity];
+        table = new int[tableSizeFor(capacity * 2)];
+        Arrays.fill(table, NONE);
+
+        parents[ROOT] = NONE;
+        size = 1;
+    }
+
+    /**
+     * @return 节点数，节点编号都小于此值
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * 添加词条路径，返回对应的节点
+     *
+     * @param key 词条路径
+     * @return 节点编号
+     */
+    public int add(String key) {
+        if (key.isEmpty()) {
+            return ROOT;
+        }
+
+        int node = ROOT;
+        int start = 0;
+        while (true) {
+            int end = key.indexOf(SEPARATOR, start);
+            if (end < 0) {
+                return getOrAdd(node, key, start, key.length());
+            }
+            node = getOrAdd(node, key, start, end);
+            start = end + SEPARATOR.length();
+        }
+    }
+
+    /**
+     * 查找词条路径对应的节点
+     *
+     * @param key 词条路径
+     * @return 节点编号，不存在时返回 {@link #NONE}
+     */
+    public int find(String key) {
+        return child(ROOT, key);
+    }
+
+    /**
+     * 查找子节点
+     *
+     * @param node 父节点，为 {@link #NONE} 时直接返回 {@link #NONE}
+     * @param name 对象的键
+     * @return 子节点编号，不存在时返回 {@link #NONE}
+     */
+    public int child(int node, String name) {
+        if (node == NONE) {
+            return NONE;
+        }
+        if (node == ROOT && name.isEmpty()) {
+            // 与 getCurrentKey 一致，空路径后拼接的名称不加分隔符
+            return ROOT;
+        }
+
+        int end = name.indexOf(SEPARATOR);
+        if (end < 0) {
+            return find(node, name, 0, name.length(), name.hashCode());
+        }
+
+        // 名称中含有分隔符，拆成多层查找
+        int start = 0;
+        while (node != NONE) {
+            if (end < 0) {
+                return find(node, name, start, name.length(), hashCode(name, start, name.length()));
+            }
+            node = find(node, name, start, end, hashCode(name, start, end));
+            start = end + SEPARATOR.length();
+            end = name.indexOf(SEPARATOR, start);
+        }
+        return NONE;
+    }
+
+    /**
+     * 查找数组元素对应的子节点，不会创建下标字符串
+     *
+     * @param node 父节点，为 {@link #NONE} 时直接返回 {@link #NONE}
+     * @param index 数组下标
+     * @return 子节点编号，不存在时返回 {@link #NONE}
+     */
+    public int child(int node, int index) {
+        if (node == NONE) {
+            return NONE;
+        }
+
+        int digits = digits(index);
+        int h = hash(node, indexHashCode(index, digits));
+        int mask = table.length - 1;
+        for (int i = h & mask; ; i = (i + 1) & mask) {
+            int candidate = table[i];
+            if (candidate == NONE) {
+                return NONE;
+            }
+            if (parents[candidate] == node && isIndex(segments[candidate], index, digits)) {
+                return candidate;
+            }
+        }
+    }
+
+    /**
+     * 生成节点的完整路径
+     *
+     * @param node 节点编号
+     * @return 词条路径
+     */
+    public String keyOf(int node) {
+        if (node == ROOT) {
+            return "";
+        }
+
+        List<String> path = new ArrayList<>();
+        for (int n = node; n != ROOT; n = parents[n]) {
+            path.add(segments[n]);
+        }
+
+        StringBuilder sb = new StringBuilder();
+        for (int i = path.size() - 1; i >= 0; i--) {
+            sb.append(path.get(i));
+            if (i > 0) {
+                sb.append(SEPARATOR);
+            }
+        }
+        return sb.toString();
+    }
+
+    /**
+     * 查找或创建子节点，名称为 key 中 [start, end) 的部分
+     */
+    private int getOrAdd(int parent, String key, int start, int end) {
+        int segmentHash = hashCode(key, start, end);
+        int node = find(parent, key, start, end, segmentHash);
+        if (node != NONE) {
+            return node;
+        }
+
+        if (size == parents.length) {
+            parents = Arrays.copyOf(parents, size * 2);
+            segments = Arrays.copyOf(segments, size * 2);
+        }
+        node = size++;
+        parents[node] = parent;
+        segments[node] = intern(key, start, end, segmentHash);
+
+        if (size * 2 > table.length) {
+            rehash(table.length * 2);
+        } else {
+            insert(node, hash(parent, segmentHash));
+        }
+        return node;
+    }
+
+    /**
+     * 查找子节点，名称为 key 中 [start, end) 的部分
+     */
+    private int find(int parent, String key, int start, int end, int segmentHash) {
+        int length = end - start;
+        int mask = table.length - 1;
+        for (int i = hash(parent, segmentHash) & mask; ; i = (i + 1) & mask) {
+            int candidate = table[i];
+            if (candidate == NONE) {
+                return NONE;
+            }
+            String segment = segments[candidate];
+            if (parents[candidate] == parent && segment.length() == length && segment.regionMatches(0, key, start, length)) {
+                return candidate;
+            }
+        }
+    }
+
+    /**
+     * 不同节点的同名名称共用一个字符串，只有第一次出现时才截取
+     */
+    private String intern(String key, int start, int end, int segmentHash) {
+        if (start == 0 && end == key.length()) {
+            return key;
+        }
+
+        int length = end - start;
+        int mask = pool.length - 1;
+        int i = mix(segmentHash) & mask;
+        for (String segment = pool[i]; segment != null; segment = pool[i]) {
+            if (segment.length() == length && segment.regionMatches(0, key, start, length)) {
+                return segment;
+            }
+            i = (i + 1) & mask;
+        }
+
+        String segment = key.substring(start, end);
+        pool[i] = segment;
+        if (++poolSize * 2 > pool.length) {
+            String[] old = pool;
+            pool = new String[old.length * 2];
+            for (String s : old) {
+                if (s != null) {
+                    int j = mix(s.hashCode()) & (pool.length - 1);
+                    while (pool[j] != null) {
+                        j = (j + 1) & (pool.length - 1);
+                    }
+                    pool[j] = s;
+                }
+            }
+        }
+        return segment;
+    }
+
+    private void insert(int node, int h) {
+        int mask = table.length - 1;
+        int i = h & mask;
+        while (table[i] != NONE) {
+            i = (i + 1) & mask;
+        }
+        table[i] = node;
+    }
+
+    private void rehash(int capacity) {
+        table = new int[capacity];
+        Arrays.fill(table, NONE);
+        for (int node = 1; node < size; node++) {
+            insert(node, hash(parents[node], segments[node].hashCode()));
+        }
+    }
+
+    private static int hash(int parent, int segmentHash) {
+        return mix(parent * 0x9E3779B9 + segmentHash);
+    }
+
+    private static int mix(int h) {
+        return h ^ (h >>> 16);
+    }
+
+    /**
+     * 计算 key 中 [start, end) 部分的 hashCode，与 {@link String#hashCode()} 结果相同
+     */
+    private static int hashCode(String key, int start, int end) {
+        int h = 0;
+        for (int i = start; i < end; i++) {
+            h = 31 * h + key.charAt(i);
+        }
+        return h;
+    }
+
+    /**
+     * 计算下标的十进制字符串的 hashCode，与 {@link String#hashCode()} 结果相同
+     */
+    private static int indexHashCode(int index, int digits) {
+        int h = 0;
+        for (int divisor = pow10(digits - 1); divisor > 0; divisor /= 10) {
+            h = 31 * h + ('0' + index / divisor % 10);
+        }
+        return h;
+    }
+
+    private static boolean isIndex(String segment, int index, int digits) {
+        if (segment.length() != digits) {
+            return false;
+        }
+        for (int i = digits - 1; i >= 0; i--) {
+            if (segment.charAt(i) != '0' + index % 10) {
+                return false;
+            }
+            index /= 10;
+        }
+        return true;
+    }
+
+    private static int digits(int index) {
+        int digits = 1;
+        while (index >= 10) {
+            index /= 10;
+            digits++;
+        }
+        return digits;
+    }
+
+    private static int pow10(int n) {
+        int result = 1;
+        while (n-- > 0) {
+            result *= 10;
+        }
+        return result;
+    }
+
+    private static int tableSizeFor(int capacity) {
+        return Integer.highestOneBit(capacity - 1) << 1;
+    }
+}
@@ -0,0 +1,130 @@
+package io.github.tfgcn.transsync.service;
+
+import io.github.tfgcn.transsync.paratranz.model.files.FilesDto;
+import io.github.tfgcn.transsync.service.model.RemoteFilesSnapshot;
+import io.github.tfgcn.transsync.utils.JsonUtils;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static io.github.tfgcn.transsync.Constants.*;
+
+/**
+ * desc: 远程文件列表缓存
+ * <p>同一进程内的所有 SyncService 共享内存缓存，同时在工作空间中保存一份副本，供命令行冷启动时使用。</p>
+ * <p>缓存超过有效期后重新获取；上传原文或译文后远程文件信息会变化，需调用 {@link #invalidate(Integer, Path)} 使缓存失效。</p>
+ * <p>缓存同时记录获取时的项目修改标记（项目更新时间和统计信息）。在网站上修改词条后项目标记会变化，
+ * 调用方传入当前的项目标记时，标记不一致的缓存视为过期；没有项目标记时无法判断磁盘副本是否过期，只使用内存缓存。</p>
+ *
+ * @author yanmaoyuan
+ */
+@Slf4j
+public final class RemoteFilesCache {
+
+    private static final Map<Integer, RemoteFilesSnapshot> MEMORY = new ConcurrentHashMap<>();
+
+    private RemoteFilesCache() {}
+
+    /**
+     * 获取未过期的远程文件列表
+     *
+     * @param projectId 项目ID
+     * @param workspace 工作空间，用于读取磁盘副本
+     * @param ttlMillis 有效期，毫秒
+     * @param projectStamp 当前的项目修改标记，为 null 时只按有效期判断
+     * @return 文件列表的副本，没有可用缓存时返回 null
+     */
+    public static List<FilesDto> get(Integer projectId, Path workspace, long ttlMillis, String projectStamp) {
+        if (ttlMillis <= 0) {
+            return null;
+        }
+
+        RemoteFilesSnapshot snapshot = MEMORY.get(projectId);
+        if (snapshot == null && projectStamp != null) {
+            snapshot = readSnapshot(projectId, workspace);
+            if (snapshot != null) {
+                MEMORY.putIfAbsent(projectId, snapshot);
+            }
+        }
+
+        if (snapshot == null || System.currentTimeMillis() - snapshot.getFetchedAt() > ttlMillis) {
+            return null;
+        }
+        if (projectStamp != null && !projectStamp.equals(snapshot.getProjectStamp())) {
+            // 项目在获取列表之后有变化
+            log.debug("Remote files cache outdated by project changes");
+            return null;
+        }
+        return new ArrayList<>(snapshot.getFiles());
+    }
+
+    /**
+     * 缓存最新获取的远程文件列表
+     *
+     * @param projectStamp 获取列表之前读取的项目修改标记，可以为 null
+     */
+    public static void put(Integer projectId, Path workspace, List<FilesDto> files, String projectStamp) {
+        RemoteFilesSnapshot snapshot = new RemoteFilesSnapshot();
+        snapshot.setProjectId(projectId);
+        snapshot.setProjectStamp(projectStamp);
+        snapshot.setFetchedAt(System.currentTimeMillis());
+        snapshot.setFiles(new ArrayList<>(files));
+        MEMORY.put(projectId, snapshot);
+
+        if (workspace != null) {
+            try {
+                Path file = getSnapshotFile(workspace);
+                Files.createDirectories(file.getParent());
+                Path temp = file.resolveSibling(REMOTE_FILES_CACHE_FILE + ".tmp");
+                JsonUtils.writeFile(temp.toFile(), snapshot);
+                Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (IOException e) {
+                log.warn("Failed to save remote files cache", e);
+            }
+        }
+    }
+
+    /**
+     * 使缓存失效，下次获取时重新请求远程文件列表
+     */
+    public static void invalidate(Integer projectId, Path workspace) {
+        MEMORY.remove(projectId);
+        if (workspace != null) {
+            try {
+                Files.deleteIfExists(getSnapshotFile(workspace));
+            } catch (IOException e) {
+                log.warn("Failed to delete remote files cache", e);
+            }
+        }
+    }
+
+    private static RemoteFilesSnapshot readSnapshot(Integer projectId, Path workspace) {
+        if (workspace == null) {
+            return null;
+        }
+        Path file = getSnapshotFile(workspace);
+        if (!Files.isRegularFile(file)) {
+            return null;
+        }
+        try {
+            RemoteFilesSnapshot snapshot = JsonUtils.readFile(file.toFile(), RemoteFilesSnapshot.class);
+            if (snapshot != null && projectId.equals(snapshot.getProjectId()) && snapshot.getFiles() != null) {
+                return snapshot;
+            }
+        } catch (Exception e) {
+            log.warn("Ignore broken remote files cache: {}", file, e);
+        }
+        return null;
+    }
+
+    private static Path getSnapshotFile(Path workspace) {
+        return workspace.resolve(WORKSPACE_DATA_DIR).resolve(REMOTE_FILES_CACHE_FILE);
+    }
+}
@@ -0,0 +1,171 @@
+package io.github.tfgcn.transsync.service;
+
+import io.github.tfgcn.transsync.service.model.DirectoryScanEntry;
+import io.github.tfgcn.transsync.utils.JsonUtils;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static io.github.tfgcn.transsync.Constants.*;
+
+/**
+ * desc: 扫描结果缓存
+ * <p>以相对路径为键，记录上次扫描经过的每个目录的修改时间、需要继续遍历的子目录和匹配的文件。
+ * 目录中新建、删除或重命名文件时目录的修改时间会变化；修改时间未变化的目录直接使用记录的内容，不再列出目录。</p>
+ * <p>记录的内容取决于扫描规则，规则变化后全部记录作废，重新扫描。</p>
+ * <p>缓存保存在 workspace/.transsync/scan-cache.json。</p>
+ *
+ * @author yanmaoyuan
+ */
+@Slf4j
+public class ScanCache {
+
+    /**
+     * 修改时间距今小于此值的目录不写入缓存。
+     * 文件系统的时间精度有限，同一时间片内的再次修改无法通过 mtime 识别。
+     */
+    private static final long RACY_WINDOW_MILLIS = 2000L;
+
+    private final Path workspace;
+    private final Path cacheFile;
+    private String rules;// 扫描规则指纹
+    private Map<String, DirectoryScanEntry> previous;// 上次扫描的记录
+    private Map<String, DirectoryScanEntry> current = new ConcurrentHashMap<>();// 本次扫描的记录
+    private volatile boolean scanned;// 本次运行是否进行过完整扫描
+    private volatile boolean dirty;
+
+    private ScanCache(Path workspace, Snapshot snapshot) {
+        this.workspace = workspace;
+        this.cacheFile = workspace.resolve(WORKSPACE_DATA_DIR).resolve(SCAN_CACHE_FILE);
+        this.rules = snapshot.rules;
+        this.previous = snapshot.dirs;
+    }
+
+    /**
+     * 保存到文件的内容
+     */
+    private static class Snapshot {
+        private String rules;
+        private Map<String, DirectoryScanEntry> dirs = new TreeMap<>();
+    }
+
+    /**
+     * 加载工作空间中的扫描结果缓存，文件不存在或已损坏时返回空缓存。
+     *
+     * @param workspace 工作空间
+     * @return 扫描结果缓存
+     */
+    public static ScanCache load(Path workspace) {
+        Path file = workspace.resolve(WORKSPACE_DATA_DIR).resolve(SCAN_CACHE_FILE);
+        Snapshot snapshot = null;
+        if (Files.isRegularFile(file)) {
+            try {
+                snapshot = JsonUtils.readFile(file.toFile(), Snapshot.class);
+            } catch (Exception e) {
+                log.warn("Ignore broken scan cache: {}", file, e);
+            }
+        }
+        if (snapshot == null || snapshot.dirs == null) {
+            snapshot = new Snapshot();
+        }
+        return new ScanCache(workspace, snapshot);
+    }
+
+    /**
+     * 开始一次完整扫描。规则与缓存不一致时丢弃全部记录。
+     *
+     * @param rules 扫描规则指纹
+     */
+    synchronized void begin(String rules) {
+        scanned = true;
+        if (!current.isEmpty()) {
+            // 同一进程中的再次扫描
+            previous = current;
+            current = new ConcurrentHashMap<>();
+        }
+        if (!rules.equals(this.rules)) {
+            if (this.rules != null) {
+                log.info("Scan rules changed, rebuilding scan cache");
+            }
+            this.rules = rules;
+            previous = new TreeMap<>();
+            dirty = true;
+        }
+    }
+
+    /**
+     * 获取目录上次扫描的内容，并保留到本次扫描的记录中
+     *
+     * @param dir 目录
+     * @param mtime 目录当前的修改时间，毫秒
+     * @return 修改时间未变化时返回记录的内容，否则返回 null
+     */
+    DirectoryScanEntry get(Path dir, long mtime) {
+        String key = getKey(dir);
+        DirectoryScanEntry entry = key == null ? null : previous.get(key);
+        if (entry == null || entry.getMtime() != mtime) {
+            return null;
+        }
+        current.put(key, entry);
+        return entry;
+    }
+
+    /**
+     * 记录目录本次扫描的内容
+     *
+     * @param dir 目录
+     * @param mtime 列出目录之前读取的修改时间，毫秒
+     * @param dirs 需要继续遍历的子目录名称
+     * @param files 匹配规则的文件名称
+     */
+    void put(Path dir, long mtime, List<String> dirs, List<String> files) {
+        String key = getKey(dir);
+        if (key == null || System.currentTimeMillis() - mtime < RACY_WINDOW_MILLIS) {
+            // 工作空间以外的目录不缓存；目录刚被修改，记录的 mtime 不可信
+            return;
+        }
+        current.put(key, new DirectoryScanEntry(mtime, dirs, files));
+        dirty = true;
+    }
+
+    /**
+     * 保存本次扫描的记录。没有扫描过或未变化时不写文件。
+     */
+    public synchronized void save() throws IOException {
+        if (!scanned || !dirty && current.size() == previous.size()) {
+            return;
+        }
+        // 保存失败时恢复标记，下次继续保存
+        dirty = false;
+        try {
+            Files.createDirectories(cacheFile.getParent());
+            Path temp = cacheFile.resolveSibling(SCAN_CACHE_FILE + ".tmp");
+            Snapshot snapshot = new Snapshot();
+            snapshot.rules = rules;
+            snapshot.dirs = new TreeMap<>(current);
+            JsonUtils.writeFile(temp.toFile(), snapshot);
+            Files.move(temp, cacheFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException | RuntimeException e) {
+            dirty = true;
+            throw e;
+        }
+        log.debug("Scan cache saved: {} dirs", current.size());
+    }
+
+    /**
+     * @return 相对于工作空间的路径，工作空间以外的目录返回 null
+     */
+    private String getKey(Path dir) {
+        if (!dir.startsWith(workspace)) {
+            return null;
+        }
+        return workspace.relativize(dir).toString().replace("\\", SEPARATOR);
+    }
+}
@@ -0,0 +1,245 @@
+package io.github.tfgcn.transsync.service;
+
+import io.github.tfgcn.transsync.service.FileScanService.Candidate;
+import io.github.tfgcn.transsync.service.FileScanService.RuleScan;
+import io.github.tfgcn.transsync.service.model.FileScanRequest;
+import io.github.tfgcn.transsync.service.model.FileScanResult;
+import io.github.tfgcn.transsync.utils.NamedThreadFactory;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static java.nio.file.StandardWatchEventKinds.*;
+
+/**
+ * desc: 常驻的扫描索引
+ * <p>建立时完整扫描一次，同时监听遍历经过的所有目录，之后按文件的新建、修改、删除事件更新，
+ * 获取源文件列表时直接从内存返回，不再遍历工作空间。新建的目录会补充扫描并加入监听；
+ * 事件丢失（OVERFLOW）时重新完整扫描。</p>
+ * <p>发生变化的源文件记录在队列中，通过 {@link #takeChanges(long)} 取出后重新计算摘要并上传。</p>
+ * <p>建立索引时不存在的规则根目录不会被监听，需要重新建立索引。有目录无法监听时索引不再视为有效，调用方应改为重新扫描。</p>
+ * <p>返回的摘要在文件大小或修改时间变化后重新计算，不依赖监听事件及时到达。</p>
+ *
+ * @author yanmaoyuan
+ */
+@Slf4j
+public class ScanIndex implements Closeable {
+
+    private final FileScanService fileScanService;
+    private final List<FileScanRequest> requests;
+    private final List<RuleScan> rules;
+    private final WatchService watcher;
+    private final Thread thread;
+
+    private volatile Map<Path, List<Candidate>> files = new ConcurrentHashMap<>();// 源文件 -> 匹配结果
+    private final Set<Path> changed = new LinkedHashSet<>();// 待上传的源文件，由 this 保护
+    private long lastChangeTime;// 最后一次变化的时间，纳秒
+    private volatile boolean closed;
+    private volatile boolean complete = true;// 遍历经过的目录都已监听
+
+    private ScanIndex(FileScanService fileScanService, List<FileScanRequest> requests) throws IOException {
+        this.fileScanService = fileScanService;
+        this.requests = new ArrayList<>(requests);
+        this.rules = fileScanService.prepare(requests);
+        this.watcher = FileSystems.getDefault().newWatchService();
+        this.thread = new NamedThreadFactory("scan-watch").newThread(this::run);
+    }
+
+    /**
+     * 完整扫描一次并开始监听文件变化
+     *
+     * @param fileScanService 扫描服务
+     * @param requests 扫描请求，按优先级排列
+     * @return 扫描索引，使用完毕后需要关闭
+     */
+    public static ScanIndex open(FileScanService fileScanService, List<FileScanRequest> requests) throws IOException {
+        ScanIndex index = new ScanIndex(fileScanService, requests);
+        index.rebuild();
+        index.thread.start();
+        log.info("Watching source files: {}", index.files.size());
+        return index;
+    }
+
+    /**
+     * @param requests 扫描请求
+     * @return 索引是否按这些扫描请求建立，且所有目录都在监听中
+     */
+    public boolean covers(List<FileScanRequest> requests) {
+        return complete && this.requests.equals(requests);
+    }
+
+    /**
+     * @return 索引计算摘要时使用的文件摘要清单
+     */
+    public HashManifest getHashManifest() {
+        return fileScanService.getHashManifest();
+    }
+
+    /**
+     * 获取源文件列表，结果与重新扫描相同
+     *
+     * @param digest 是否计算源文件的MD5，已计算过且文件没有变化的不再重复计算
+     */
+    public List<FileScanResult> getSourceFiles(boolean digest) {
+        return fileScanService.select(rules, snapshot(), null, digest);
+    }
+
+    /**
+     * 等待源文件变化并取出。收到变化后，等到 quietMillis 内没有新的变化再返回，避免文件写入过程中多次上传。
+     *
+     * @param quietMillis 没有新变化的等待时间，毫秒
+     * @return 发生变化且仍然匹配规则的源文件，已计算摘要；索引关闭时返回空列表
+     */
+    public List<FileScanResult> takeChanges(long quietMillis) throws InterruptedException {
+        Set<Path> taken;
+        synchronized (this) {
+            while (true) {
+                if (closed) {
+                    return Collections.emptyList();
+                }
+                if (changed.isEmpty()) {
+                    wait();
+                    continue;
+                }
+                long remaining = quietMillis - (System.nanoTime() - lastChangeTime) / 1_000_000;
+                if (remaining <= 0) {
+                    break;
+                }
+                wait(remaining);
+            }
+            taken = new HashSet<>(changed);
+            changed.clear();
+        }
+        return fileScanService.select(rules, snapshot(), taken, true);
+    }
+
+    @Override
+    public void close() throws IOException {
+        closed = true;
+        synchronized (this) {
+            notifyAll();
+        }
+        watcher.close();
+    }
+
+    private List<Candidate> snapshot() {
+        List<Candidate> candidates = new ArrayList<>();
+        for (List<Candidate> list : files.values()) {
+            candidates.addAll(list);
+        }
+        return candidates;
+    }
+
+    /**
+     * 完整扫描，并监听遍历经过的所有目录
+     */
+    private void rebuild() {
+        Map<Path, List<Candidate>> map = new ConcurrentHashMap<>();
+        for (Candidate candidate : fileScanService.collect(rules, this::register)) {
+            map.computeIfAbsent(candidate.getFile(), k -> new ArrayList<>(1)).add(candidate);
+        }
+        files = map;
+    }
+
+    private void register(Path dir) {
+        try {
+            dir.register(watcher, ENTRY_CREATE, ENTRY_DELETE, ENTRY_MODIFY);
+        } catch (ClosedWatchServiceException e) {
+            // 索引已关闭
+        } catch (IOException e) {
+            // 该目录下的变化无法及时发现，索引不再可用
+            complete = false;
+            log.warn("无法监听目录: {}", dir, e);
+        }
+    }
+
+    private void run() {
+        while (!closed) {
+            WatchKey key;
+            try {
+                key = watcher.take();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (ClosedWatchServiceException e) {
+                return;
+            }
+
+            Path dir = (Path) key.watchable();
+            boolean overflow = false;
+            for (WatchEvent<?> event : key.pollEvents()) {
+                if (event.kind() == OVERFLOW) {
+                    overflow = true;
+                    continue;
+                }
+                Path child = dir.resolve((Path) event.context());
+                try {
+                    onEvent(event.kind(), child);
+                } catch (Exception e) {
+                    log.warn("更新扫描索引失败: {}", child, e);
+                }
+            }
+            key.reset();
+
+            if (overflow && !closed) {
+                // 丢失了事件，无法知道哪些文件有变化
+                log.warn("File events overflowed, rescanning");
+                rebuild();
+                markChanged(files.keySet());
+            }
+        }
+    }
+
+    private void onEvent(WatchEvent.Kind<?> kind, Path child) throws IOException {
+        if (kind == ENTRY_DELETE) {
+            // 删除的可能是目录，移除其中的所有文件
+            files.keySet().removeIf(file -> file.startsWith(child));
+            return;
+        }
+
+        if (!Files.isDirectory(child, LinkOption.NOFOLLOW_LINKS)) {
+            List<Candidate> candidates = fileScanService.match(rules, child);
+            if (candidates.isEmpty()) {
+                files.remove(child);
+            } else {
+                files.put(child, candidates);
+                markChanged(Collections.singleton(child));
+            }
+        } else if (kind == ENTRY_CREATE) {
+            // 新建的目录：监听并扫描其中已有的文件
+            Map<Path, List<Candidate>> found = new HashMap<>();
+            for (Candidate candidate : fileScanService.collect(rules, child, this::register)) {
+                found.computeIfAbsent(candidate.getFile(), k -> new ArrayList<>(1)).add(candidate);
+            }
+            files.putAll(found);
+            markChanged(found.keySet());
+        }
+    }
+
+    private synchronized void markChanged(Set<Path> paths) {
+        if (paths.isEmpty()) {
+            return;
+        }
+        changed.addAll(paths);
+        lastChangeTime = System.nanoTime();
+        notifyAll();
+    }
+}
@@ -0,0 +1,172 @@
+package io.github.tfgcn.transsync.service;
+
+import io.github.tfgcn.transsync.utils.FileDigests;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+/**
+ * desc: 源文件，可以是工作空间中的普通文件，也可以是压缩包中的条目
+ * <p>压缩包中的条目用 "!/" 分隔压缩包路径和条目路径，与 jar URL 的写法一致，例如 mods/tfc.jar!/assets/tfc/lang/en_us.json。
+ * 条目通过 {@link ZipFile} 直接读取，不解压到磁盘。读取同一压缩包中的多个条目时，应打开一次压缩包后逐个读取。</p>
+ *
+ * @author yanmaoyuan
+ */
+public final class SourceFile {
+
+    /**
+     * 压缩包路径与条目路径的分隔符
+     */
+    public static final String ARCHIVE_SEPARATOR = "!/";
+
+    private final Path path;// 普通文件或压缩包
+    private final String entry;// 压缩包中的条目，普通文件为 null
+
+    private SourceFile(Path path, String entry) {
+        this.path = path;
+        this.entry = entry;
+    }
+
+    /**
+     * @param file 普通文件
+     */
+    public static SourceFile of(Path file) {
+        return new SourceFile(file, null);
+    }
+
+    /**
+     * @param workspace 工作空间
+     * @param relativePath 扫描结果中的源文件路径
+     */
+    public static SourceFile of(Path workspace, String relativePath) {
+        int index = relativePath.indexOf(ARCHIVE_SEPARATOR);
+        if (index < 0) {
+            return new SourceFile(workspace.resolve(relativePath), null);
+        }
+        return new SourceFile(workspace.resolve(relativePath.substring(0, index)),
+                relativePath.substring(index + ARCHIVE_SEPARATOR.length()));
+    }
+
+    /**
+     * @return 普通文件或条目所在的压缩包
+     */
+    public Path getPath() {
+        return path;
+    }
+
+    /**
+     * @return 压缩包中的条目路径，普通文件为 null
+     */
+    public String getEntry() {
+        return entry;
+    }
+
+    public boolean isArchiveEntry() {
+        return entry != null;
+    }
+
+    /**
+     * @return 文件名
+     */
+    public String getName() {
+        if (entry == null) {
+            return path.getFileName().toString();
+        }
+        return entry.substring(entry.lastIndexOf('/') + 1);
+    }
+
+    /**
+     * @return 文件内容的字节数
+     */
+    public long size() throws IOException {
+        if (entry == null) {
+            return Files.size(path);
+        }
+        try (ZipFile zip = new ZipFile(path.toFile())) {
+            return getZipEntry(zip).getSize();
+        }
+    }
+
+    /**
+     * 打开文件。压缩包中的条目边读边解压，关闭输入流时关闭压缩包。
+     */
+    public InputStream open() throws IOException {
+        if (entry == null) {
+            return Files.newInputStream(path);
+        }
+
+        ZipFile zip = new ZipFile(path.toFile());
+        try {
+            return new FilterInputStream(open(zip)) {
+                @Override
+                public void close() throws IOException {
+                    try {
+                        super.close();
+                    } finally {
+                        zip.close();
+                    }
+                }
+            };
+        } catch (IOException | RuntimeException e) {
+            zip.close();
+            throw e;
+        }
+    }
+
+    /**
+     * 从已打开的压缩包中读取条目，不重新解析压缩包的中央目录。压缩包由调用方关闭。
+     *
+     * @param zip 条目所在的压缩包
+     */
+    public InputStream open(ZipFile zip) throws IOException {
+        return zip.getInputStream(getZipEntry(zip));
+    }
+
+    /**
+     * 计算文件内容的MD5，不使用摘要清单
+     *
+     * @return 小写十六进制的MD5
+     */
+    public String md5Hex() throws IOException {
+        if (entry == null) {
+            return FileDigests.md5Hex(path);
+        }
+        try (InputStream in = open()) {
+            return FileDigests.md5Hex(in);
+        }
+    }
+
+    /**
+     * 计算条目内容的MD5，从已打开的压缩包中读取
+     *
+     * @param zip 条目所在的压缩包，为 null 时按需打开
+     * @return 小写十六进制的MD5
+     */
+    public String md5Hex(ZipFile zip) throws IOException {
+        if (entry == null || zip == null) {
+            return md5Hex();
+        }
+        try (InputStream in = open(zip)) {
+            return FileDigests.md5Hex(in);
+        }
+    }
+
+    private ZipEntry getZipEntry(ZipFile zip) throws NoSuchFileException {
+        ZipEntry zipEntry = zip.getEntry(entry);
+        if (zipEntry == null || zipEntry.isDirectory()) {
+            throw new NoSuchFileException(toString());
+        }
+        return zipEntry;
+    }
+
+    @Override
+    public String toString() {
+        return entry == null ? path.toString() : path + ARCHIVE_SEPARATOR + entry;
+    }
+}
@@ -0,0 +1,275 @@
+package io.github.tfgcn.transsync.service;
+
+import com.google.gson.Strictness;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+import io.github.tfgcn.transsync.utils.JsonUtils;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.function.BiConsumer;
+import java.util.function.IntFunction;
+import java.util.function.ObjIntConsumer;
+
+/**
+ * desc: 流式处理 JSON 语言文件
+ * <p>按 token 顺序读写文件，不构建完整的对象树，内存占用只与嵌套深度有关。</p>
+ * <p>词条路径的格式与 {@link SyncService#flattenNestedStructure} 一致，各层之间用 "->" 连接，数组元素使用下标。</p>
+ *
+ * @author yanmaoyuan
+ */
+public final class StreamingJson {
+
+    private static final String PATH_SEPARATOR = "->";
+
+    private StreamingJson() {}
+
+    /**
+     * 打平 JSON 文件，按文件中的顺序输出词条路径和字符串值
+     *
+     * @param file JSON 文件
+     * @param consumer 接收词条路径和值
+     */
+    public static void flatten(File file, BiConsumer<String, String> consumer) throws IOException {
+        try (Reader reader = new InputStreamReader(new FileInputStream(file), StandardCharsets.UTF_8)) {
+            flatten(reader, consumer);
+        }
+    }
+
+    /**
+     * 打平 JSON 文档，按文档中的顺序输出词条路径和字符串值。
+     * <p>与 {@link SyncService#flattenNestedStructure} 相同，数组中直接存放的字符串不会输出，数组中的对象和数组照常展开。</p>
+     *
+     * @param in JSON 文档
+     * @param consumer 接收词条路径和值
+     */
+    public static void flatten(Reader in, BiConsumer<String, String> consumer) throws IOException {
+        JsonReader reader = newReader(in);
+        StringBuilder path = new StringBuilder();
+        reader.beginObject();
+        flattenObject(reader, path, consumer);
+        reader.endObject();
+    }
+
+    private static void flattenObject(JsonReader reader, StringBuilder path, BiConsumer<String, String> consumer) throws IOException {
+        while (reader.hasNext()) {
+            int mark = path.length();
+            appendSegment(path, reader.nextName());
+
+            JsonToken token = reader.peek();
+            if (token == JsonToken.STRING) {
+                consumer.accept(path.toString(), reader.nextString());
+            } else if (token == JsonToken.BEGIN_OBJECT) {
+                reader.beginObject();
+                flattenObject(reader, path, consumer);
+                reader.endObject();
+            } else if (token == JsonToken.BEGIN_ARRAY) {
+                reader.beginArray();
+                flattenArray(reader, path, consumer);
+                reader.endArray();
+            } else {
+                // 其他类型（Number, Boolean, null）不是词条
+                reader.skipValue();
+            }
+            path.setLength(mark);
+        }
+    }
+
+    private static void flattenArray(JsonReader reader, StringBuilder path, BiConsumer<String, String> consumer) throws IOException {
+        for (int i = 0; reader.hasNext(); i++) {
+            int mark = path.length();
+            appendSegment(path, Integer.toString(i));
+
+            JsonToken token = reader.peek();
+            if (token == JsonToken.BEGIN_OBJECT) {
+                reader.beginObject();
+                flattenObject(reader, path, consumer);
+                reader.endObject();
+            } else if (token == JsonToken.BEGIN_ARRAY) {
+                reader.beginArray();
+                flattenArray(reader, path, consumer);
+                reader.endArray();
+            } else {
+                reader.skipValue();
+            }
+            path.setLength(mark);
+        }
+    }
+
+    /**
+     * 打平 JSON 文件，只输出字典树中已有的词条
+     *
+     * @param file JSON 文件
+     * @param paths 需要的词条路径
+     * @param consumer 接收字符串值和词条对应的节点
+     */
+    public static void flatten(File file, KeyPathTrie paths, ObjIntConsumer<String> consumer) throws IOException {
+        try (Reader reader = new InputStreamReader(new FileInputStream(file), StandardCharsets.UTF_8)) {
+            flatten(reader, paths, consumer);
+        }
+    }
+
+    /**
+     * 打平 JSON 文档，只输出字典树中已有的词条。
+     * <p>路径用字典树节点表示，不会生成路径字符串；字典树中不存在的分支直接跳过。
+     * 输出的词条与 {@link #flatten(Reader, BiConsumer)} 相同。</p>
+     *
+     * @param in JSON 文档
+     * @param paths 需要的词条路径
+     * @param consumer 接收字符串值和词条对应的节点
+     */
+    public static void flatten(Reader in, KeyPathTrie paths, ObjIntConsumer<String> consumer) throws IOException {
+        JsonReader reader = newReader(in);
+        reader.beginObject();
+        flattenObject(reader, paths, KeyPathTrie.ROOT, consumer);
+        reader.endObject();
+    }
+
+    private static void flattenObject(JsonReader reader, KeyPathTrie paths, int node, ObjIntConsumer<String> consumer) throws IOException {
+        while (reader.hasNext()) {
+            int child = paths.child(node, reader.nextName());
+            JsonToken token = reader.peek();
+            if (child == KeyPathTrie.NONE) {
+                reader.skipValue();
+            } else if (token == JsonToken.STRING) {
+                consumer.accept(reader.nextString(), child);
+            } else if (token == JsonToken.BEGIN_OBJECT) {
+                reader.beginObject();
+                flattenObject(reader, paths, child, consumer);
+                reader.endObject();
+            } else if (token == JsonToken.BEGIN_ARRAY) {
+                reader.beginArray();
+                flattenArray(reader, paths, child, consumer);
+                reader.endArray();
+            } else {
+                reader.skipValue();
+            }
+        }
+    }
+
+    private static void flattenArray(JsonReader reader, KeyPathTrie paths, int node, ObjIntConsumer<String> consumer) throws IOException {
+        for (int i = 0; reader.hasNext(); i++) {
+            int child = paths.child(node, i);
+            JsonToken token = reader.peek();
+            if (child == KeyPathTrie.NONE) {
+                reader.skipValue();
+            } else if (token == JsonToken.BEGIN_OBJECT) {
+                reader.beginObject();
+                flattenObject(reader, paths, child, consumer);
+                reader.endObject();
+            } else if (token == JsonToken.BEGIN_ARRAY) {
+                reader.beginArray();
+                flattenArray(reader, paths, child, consumer);
+                reader.endArray();
+            } else {
+                reader.skipValue();
+            }
+        }
+    }
+
+    /**
+     * 读取源文件，替换译文后写出
+     *
+     * @param sourceFile 源文件
+     * @param out 输出
+     * @param paths 有译文的词条路径
+     * @param translations 按节点查找译文，返回 null 时保留原文
+     */
+    public static void merge(File sourceFile, Writer out, KeyPathTrie paths, IntFunction<String> translations) throws IOException {
+        try (Reader reader = new InputStreamReader(new FileInputStream(sourceFile), StandardCharsets.UTF_8)) {
+            merge(reader, out, paths, translations);
+        }
+    }
+
+    /**
+     * 读取源文档，替换译文后写出。
+     * <p>输出与 {@link SyncService#updateNestedStructure} 更新后再用 {@link JsonUtils#GSON} 序列化的结果一致：
+     * 键的顺序不变，数字按原文写出，数组中的字符串同样会被替换。</p>
+     *
+     * @param in 源文档
+     * @param out 输出
+     * @param paths 有译文的词条路径
+     * @param translations 按节点查找译文，返回 null 时保留原文
+     */
+    public static void merge(Reader in, Writer out, KeyPathTrie paths, IntFunction<String> translations) throws IOException {
+        JsonReader reader = newReader(in);
+        JsonWriter writer = JsonUtils.GSON.newJsonWriter(out);
+
+        reader.beginObject();
+        writer.beginObject();
+        mergeObject(reader, writer, paths, KeyPathTrie.ROOT, translations);
+        reader.endObject();
+        writer.endObject();
+        writer.flush();
+    }
+
+    private static void mergeObject(JsonReader reader, JsonWriter writer, KeyPathTrie paths, int node, IntFunction<String> translations) throws IOException {
+        while (reader.hasNext()) {
+            String name = reader.nextName();
+            writer.name(name);
+            mergeValue(reader, writer, paths, paths.child(node, name), translations);
+        }
+    }
+
+    private static void mergeValue(JsonReader reader, JsonWriter writer, KeyPathTrie paths, int node, IntFunction<String> translations) throws IOException {
+        switch (reader.peek()) {
+            case STRING: {
+                String value = reader.nextString();
+                String translated = node == KeyPathTrie.NONE ? null : translations.apply(node);
+                writer.value(translated != null ? translated : value);
+                break;
+            }
+            case BEGIN_OBJECT:
+                reader.beginObject();
+                writer.beginObject();
+                mergeObject(reader, writer, paths, node, translations);
+                reader.endObject();
+                writer.endObject();
+                break;
+            case BEGIN_ARRAY:
+                reader.beginArray();
+                writer.beginArray();
+                for (int i = 0; reader.hasNext(); i++) {
+                    mergeValue(reader, writer, paths, paths.child(node, i), translations);
+                }
+                reader.endArray();
+                writer.endArray();
+                break;
+            case NUMBER:
+                // 按原文写出，避免改变数字的写法
+                writer.jsonValue(reader.nextString());
+                break;
+            case BOOLEAN:
+                writer.value(reader.nextBoolean());
+                break;
+            case NULL:
+                reader.nextNull();
+                writer.nullValue();
+                break;
+            default:
+                throw new IllegalStateException("Unexpected token " + reader.peek() + " at " + reader.getPath());
+        }
+    }
+
+    private static void appendSegment(StringBuilder path, String segment) {
+        if (path.length() > 0) {
+            path.append(PATH_SEPARATOR);
+        }
+        path.append(segment);
+    }
+
+    /**
+     * 与 {@link JsonUtils#readFile} 一样宽松地解析，允许注释等非标准写法
+     */
+    private static JsonReader newReader(Reader in) {
+        JsonReader reader = JsonUtils.GSON.newJsonReader(in);
+        reader.setStrictness(Strictness.LENIENT);
+        return reader;
+    }
+}
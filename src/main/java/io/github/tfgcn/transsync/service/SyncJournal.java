@@ -0,0 +1,150 @@
+package io.github.tfgcn.transsync.service;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static io.github.tfgcn.transsync.Constants.*;
+
+/**
+ * desc: 同步任务日志
+ * <p>以追加方式记录每个已完成的文件操作，任务中断后可通过 resume 跳过已确认完成的文件。</p>
+ * <p>每行一条记录，格式为 <code>key \t fingerprint \t status</code>。fingerprint 描述完成时文件的状态，
+ * 例如本地文件的MD5，状态变化后同一个 key 不再视为已完成。</p>
+ *
+ * @author yanmaoyuan
+ */
+@Slf4j
+public class SyncJournal implements Closeable {
+
+    private static final String FIELD_SEPARATOR = "\t";
+
+    private final Path journalFile;
+    private final Map<String, String[]> completed;
+    private BufferedWriter writer;
+
+    private SyncJournal(Path journalFile, Map<String, String[]> completed) throws IOException {
+        this.journalFile = journalFile;
+        this.completed = completed;
+        this.writer = Files.newBufferedWriter(journalFile, StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+    }
+
+    /**
+     * 打开任务日志
+     *
+     * @param workspace 工作空间
+     * @param operation 任务名称，每种任务使用独立的日志文件
+     * @param resume 是否继续上次中断的任务。为 false 时清空已有记录
+     * @return 任务日志
+     */
+    public static SyncJournal open(Path workspace, String operation, boolean resume) throws IOException {
+        Path dir = workspace.resolve(WORKSPACE_DATA_DIR).resolve(JOURNAL_DIR);
+        Files.createDirectories(dir);
+        Path file = dir.resolve(operation + ".log");
+
+        Map<String, String[]> completed = new LinkedHashMap<>();
+        if (!resume) {
+            Files.deleteIfExists(file);
+        } else if (Files.isRegularFile(file)) {
+            List<String> lines = Files.readAllLines(file, StandardCharsets.UTF_8);
+            for (String line : lines) {
+                String[] fields = line.split(FIELD_SEPARATOR, 3);
+                if (fields.length == 3) {
+                    completed.put(fields[0], fields);
+                }
+                // 不完整的行来自中断时未写完的记录，直接丢弃
+            }
+            log.info("Resume {}: {} files already done", operation, completed.size());
+        }
+        return new SyncJournal(file, completed);
+    }
+
+    /**
+     * @param workspace 工作空间
+     * @param operation 任务名称
+     * @return 是否有上次中断或部分失败的任务留下的日志
+     */
+    public static boolean exists(Path workspace, String operation) {
+        return Files.isRegularFile(workspace.resolve(WORKSPACE_DATA_DIR).resolve(JOURNAL_DIR).resolve(operation + ".log"));
+    }
+
+    /**
+     * 文件是否已在本次或上次任务中完成
+     *
+     * @param key 文件标识，通常为相对路径
+     * @param fingerprint 文件当前状态
+     */
+    public synchronized boolean isDone(String key, String fingerprint) {
+        String[] fields = completed.get(key);
+        return fields != null && fields[1].equals(fingerprint);
+    }
+
+    /**
+     * 记录一个已完成的文件操作
+     *
+     * @param key 文件标识，通常为相对路径
+     * @param fingerprint 完成时文件的状态
+     * @param status 操作结果
+     */
+    public synchronized void record(String key, String fingerprint, String status) throws IOException {
+        String[] fields = {sanitize(key), sanitize(fingerprint), sanitize(status)};
+        completed.put(fields[0], fields);
+        writer.write(String.join(FIELD_SEPARATOR, fields));
+        writer.newLine();
+        writer.flush();
+    }
+
+    /**
+     * 任务结束时调用。全部完成时删除日志，之后的 resume 不再跳过任何文件；
+     * 有失败或取消的文件时压缩日志，供下次继续。
+     *
+     * @param succeeded 是否所有文件都已完成
+     */
+    public synchronized void finish(boolean succeeded) throws IOException {
+        if (succeeded) {
+            writer.close();
+            Files.deleteIfExists(journalFile);
+        } else {
+            compact();
+        }
+    }
+
+    /**
+     * 压缩日志，同一文件只保留最后一条记录。
+     */
+    public synchronized void compact() throws IOException {
+        writer.close();
+
+        Path temp = journalFile.resolveSibling(journalFile.getFileName() + ".tmp");
+        try (BufferedWriter out = Files.newBufferedWriter(temp, StandardCharsets.UTF_8)) {
+            for (String[] fields : completed.values()) {
+                out.write(String.join(FIELD_SEPARATOR, fields));
+                out.newLine();
+            }
+        }
+        Files.move(temp, journalFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+        writer = Files.newBufferedWriter(journalFile, StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        writer.close();
+    }
+
+    private static String sanitize(String value) {
+        if (value == null) {
+            return "";
+        }
+        return value.replace('\t', ' ').replace('\n', ' ').replace('\r', ' ');
+    }
+}
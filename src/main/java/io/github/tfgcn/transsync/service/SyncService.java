@@ -1,32 +1,53 @@
 package io.github.tfgcn.transsync.service;
 
-import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonWriter;
 import io.github.tfgcn.transsync.Constants;
 import io.github.tfgcn.transsync.I18n;
+import io.github.tfgcn.transsync.paratranz.TranslationReader;
 import io.github.tfgcn.transsync.paratranz.api.StringsApi;
 import io.github.tfgcn.transsync.paratranz.error.ApiException;
 import io.github.tfgcn.transsync.paratranz.api.FilesApi;
+import io.github.tfgcn.transsync.paratranz.api.ProjectsApi;
 import io.github.tfgcn.transsync.paratranz.model.StageEnum;
 import io.github.tfgcn.transsync.paratranz.model.files.FilesDto;
 import io.github.tfgcn.transsync.paratranz.model.files.FileUploadRespDto;
 import io.github.tfgcn.transsync.paratranz.model.files.TranslationDto;
+import io.github.tfgcn.transsync.paratranz.model.projects.ProjectStatsDto;
+import io.github.tfgcn.transsync.paratranz.model.projects.ProjectsDto;
 import io.github.tfgcn.transsync.paratranz.model.strings.StringItem;
+import io.github.tfgcn.transsync.paratranz.model.strings.UpdateStringsReqDto;
 import io.github.tfgcn.transsync.service.model.*;
+import io.github.tfgcn.transsync.utils.FileDigests;
+import io.github.tfgcn.transsync.utils.JsonBuffer;
 import io.github.tfgcn.transsync.utils.JsonUtils;
+import io.github.tfgcn.transsync.utils.NamedThreadFactory;
 import lombok.Setter;
 import lombok.extern.slf4j.Slf4j;
+import okhttp3.MediaType;
 import okhttp3.MultipartBody;
 import okhttp3.RequestBody;
-import org.apache.commons.codec.digest.DigestUtils;
+import okhttp3.ResponseBody;
+import okio.BufferedSink;
+import okio.Okio;
+import org.apache.commons.codec.binary.Hex;
 import org.apache.commons.io.FileUtils;
 import retrofit2.Response;
 
 import java.io.File;
-import java.io.FileInputStream;
 import java.io.IOException;
-import java.lang.reflect.Type;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.security.MessageDigest;
 import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.BooleanSupplier;
 import java.util.stream.Collectors;
 
 import static io.github.tfgcn.transsync.Constants.*;
@@ -39,18 +60,54 @@ import static io.github.tfgcn.transsync.Constants.*;
 @Slf4j
 public class SyncService {
 
+    private static final String JOURNAL_UPLOAD_SOURCES = "upload-sources";
+    private static final String JOURNAL_DOWNLOAD_TRANSLATIONS = "download-translations";
+    private static final String JOURNAL_UPLOAD_TRANSLATIONS = "upload-translations";
+
+    /**
+     * 批量导入译文在服务端的额外开销，折算为普通请求数
+     */
+    private static final int BULK_UPLOAD_OVERHEAD_REQUESTS = 5;
+    /**
+     * 批量导入时服务端按整个文件处理，每处理这么多词条约相当于一次普通请求
+     */
+    private static final int BULK_UPLOAD_STRINGS_PER_REQUEST = 100;
+    /**
+     * 批量修改词条状态时，每次请求包含的词条数
+     */
+    private static final int STAGE_RESET_BATCH_SIZE = 200;
+
     @Setter
     private StringsApi stringsApi;
     @Setter
     private FilesApi filesApi;
     @Setter
+    private ProjectsApi projectsApi;
+    @Setter
     private Integer projectId;
     private String workDir;
     @Setter
     private List<FileScanRule> rules;
+    @Setter
+    private Integer jobs;// 并发处理的文件数
+    @Setter
+    private boolean resume;// 是否跳过上次中断的任务中已完成的文件
+    @Setter
+    private Integer remoteFilesTtl;// 远程文件列表缓存有效期，秒
+    @Setter
+    private Integer prefetch;// 提前获取译文的文件数
+    @Setter
+    private ProjectsDto project;// 任务开始时获取的项目信息，用于判断项目是否有变化
 
     private List<FilesDto> remoteFiles;
     private Map<String, FilesDto> remoteFilesMap;
+    private boolean remoteFilesFresh;// 当前的远程文件列表是否刚从服务器获取，而不是来自缓存
+
+    private HashManifest hashManifest;
+    private ScanCache scanCache;
+    private DownloadState downloadState;
+    private TranslationStore translationStore;
+    private ScanIndex scanIndex;// 常驻的扫描索引，为空时每次重新扫描
 
     private final FileScanService fileScanService;
 
@@ -77,18 +134,80 @@ public class SyncService {
             throw new IOException(Constants.MSG_FOLDER_INVALID);
         }
         this.workDir = workspaceFolder.getCanonicalPath().replace("\\", SEPARATOR);
+        this.hashManifest = HashManifest.load(workspaceFolder.getCanonicalFile().toPath());
+        this.fileScanService.setHashManifest(hashManifest);
+        this.scanCache = ScanCache.load(workspaceFolder.getCanonicalFile().toPath());
+        this.fileScanService.setScanCache(scanCache);
+        this.downloadState = DownloadState.load(workspaceFolder.getCanonicalFile().toPath());
+        this.translationStore = TranslationStore.open(workspaceFolder.getCanonicalFile().toPath());
         log.info("set workdir to:{}", workDir);
     }
 
     /**
-     * 获取远程文件列表
+     * 保存工作空间中的缓存数据，任务结束时调用。
+     */
+    public void flush() {
+        try {
+            hashManifest.save();
+        } catch (IOException e) {
+            log.warn("Failed to save hash manifest", e);
+        }
+        try {
+            scanCache.save();
+        } catch (IOException e) {
+            log.warn("Failed to save scan cache", e);
+        }
+        try {
+            downloadState.save();
+        } catch (IOException e) {
+            log.warn("Failed to save download state", e);
+        }
+    }
+
+    /**
+     * 获取项目信息，用于判断远程文件列表缓存是否过期。获取失败时只按有效期判断。
+     */
+    public void loadProject() {
+        if (projectsApi == null || projectId == null) {
+            return;
+        }
+        try {
+            project = projectsApi.getProject(projectId).execute().body();
+        } catch (IOException | ApiException e) {
+            log.warn("Failed to load project info", e);
+        }
+    }
+
+    /**
+     * 获取远程文件列表，缓存有效且项目没有变化时直接使用缓存
      *
      */
     public List<FilesDto> fetchRemoteFiles() throws IOException, ApiException {
-        log.info("Fetching remote files...");
-        // 查询已有的文件列表
-        List<FilesDto> fileList = filesApi.getFiles(projectId).execute().body();
-        if (fileList == null || fileList.isEmpty()) {
+        return fetchRemoteFiles(false);
+    }
+
+    /**
+     * 获取远程文件列表
+     *
+     * @param refresh 是否忽略缓存，强制重新获取
+     */
+    public List<FilesDto> fetchRemoteFiles(boolean refresh) throws IOException, ApiException {
+        String projectStamp = getProjectStamp();
+        List<FilesDto> fileList = refresh ? null : RemoteFilesCache.get(projectId, getWorkspacePath(), getRemoteFilesTtlMillis(), projectStamp);
+        remoteFilesFresh = fileList == null;
+        if (fileList != null) {
+            log.info("Using cached remote files: {}", fileList.size());
+        } else {
+            log.info("Fetching remote files...");
+            // 查询已有的文件列表
+            fileList = filesApi.getFiles(projectId).execute().body();
+            if (fileList == null) {
+                fileList = Collections.emptyList();
+            }
+            RemoteFilesCache.put(projectId, getWorkspacePath(), fileList, projectStamp);
+        }
+
+        if (fileList.isEmpty()) {
             log.info("No remote files found");
             remoteFilesMap = Collections.emptyMap();
             remoteFiles = Collections.emptyList();
@@ -102,20 +221,98 @@ public class SyncService {
             }
             log.info("Found remote files: {}", fileList.size());
         }
-        return remoteFiles;
+        return new ArrayList<>(remoteFiles);
+    }
+
+    /**
+     * 远程文件将被修改，使远程文件列表缓存失效。
+     * <p>写入前后各调用一次：写入期间其他任务获取的列表仍是旧的，写入完成后需要再次清除。</p>
+     */
+    private void invalidateRemoteFiles() {
+        RemoteFilesCache.invalidate(projectId, getWorkspacePath());
+    }
+
+    private long getRemoteFilesTtlMillis() {
+        int ttl = remoteFilesTtl == null ? DEFAULT_REMOTE_FILES_TTL : remoteFilesTtl;
+        return Math.max(ttl, 0) * 1000L;
+    }
+
+    private Path getWorkspacePath() {
+        return workDir == null ? null : Paths.get(workDir);
     }
 
     /**
      * 获取待上传的文件列表
      */
     public List<FileScanResult> getSourceFiles() {
+        return getSourceFiles(false);
+    }
+
+    /**
+     * 获取待上传的文件列表
+     *
+     * @param digest 是否在扫描时并行计算源文件的MD5
+     */
+    public List<FileScanResult> getSourceFiles(boolean digest) {
+        List<FileScanRequest> requests = getScanRequests();
+
+        List<FileScanResult> fileList;
+        if (scanIndex != null && scanIndex.covers(requests)) {
+            // 索引随文件变化更新，不需要重新扫描
+            fileList = scanIndex.getSourceFiles(digest);
+        } else {
+            for (FileScanRequest request : requests) {
+                request.setDigest(digest);
+            }
+            // 所有规则共用一次遍历，遍历时已按译文路径去重
+            fileList = fileScanService.scanAndMapFiles(requests);
+        }
+
+        // 按照源文件路径进行排序
+        fileList.sort(Comparator.comparing(FileScanResult::getSourceFilePath));
+        return fileList;
+    }
+
+    /**
+     * 建立常驻的扫描索引，之后获取待上传的文件列表时直接使用索引。索引由调用方关闭。
+     *
+     * @return 扫描索引
+     */
+    public ScanIndex openScanIndex() throws IOException {
+        scanIndex = ScanIndex.open(fileScanService, getScanRequests());
+        return scanIndex;
+    }
+
+    /**
+     * 使用已有的扫描索引。索引按当前的工作目录和规则建立时，改用索引的文件摘要清单，
+     * 索引中计算的摘要随本服务一起保存，两份清单也不会互相覆盖。
+     *
+     * @param scanIndex 扫描索引，为空时每次重新扫描
+     */
+    public void setScanIndex(ScanIndex scanIndex) {
+        this.scanIndex = scanIndex;
+        if (isScanIndexCurrent() && scanIndex.getHashManifest() != null) {
+            this.hashManifest = scanIndex.getHashManifest();
+            this.fileScanService.setHashManifest(hashManifest);
+        }
+    }
+
+    /**
+     * @return 扫描索引是否按当前的工作目录和规则建立
+     */
+    public boolean isScanIndexCurrent() {
+        return scanIndex != null && scanIndex.covers(getScanRequests());
+    }
+
+    /**
+     * 按启用的规则生成扫描请求
+     */
+    private List<FileScanRequest> getScanRequests() {
         if (rules == null || rules.isEmpty()) {
             throw new RuntimeException(I18n.getString("message.noRules"));
         }
 
-        List<FileScanResult> fileList = new ArrayList<>(100);
-
-        Set<String> distinct = new HashSet<>();
+        List<FileScanRequest> requests = new ArrayList<>(rules.size());
         for (FileScanRule rule : rules) {
             if (Boolean.FALSE.equals(rule.getEnabled())) {
                 continue;
@@ -127,84 +324,275 @@ public class SyncService {
             request.setSrcLang(rule.getSrcLang());
             request.setDestLang(rule.getDestLang());
             request.setIgnores(rule.getIgnores());
-            try {
-                List<FileScanResult> results = fileScanService.scanAndMapFiles(request);
-                for (FileScanResult item : results) {
-                    if (!distinct.contains(item.getTranslationFilePath())) {
-                        distinct.add(item.getTranslationFilePath());
-                        fileList.add(item);
-                    } else {
-                        log.debug("Duplicated file:{}", item.getTranslationFilePath());
-                    }
-                }
-            } catch (Exception ex) {
-                log.error("扫描文件失败, rule:{}", rule, ex);
-            }
+            requests.add(request);
         }
-
-        // 按照源文件路径进行排序
-        fileList.sort(Comparator.comparing(FileScanResult::getSourceFilePath));
-        return fileList;
+        return requests;
     }
 
     /**
      * 上传原文
+     * <p>文件之间互不依赖，按 jobs 设置的并发数同时上传。单个文件失败不会中断整个任务，失败信息记录在返回结果中。</p>
      */
-    public void uploadSources() throws IOException, ApiException {
-        // 扫描远程服务器上已有的文件
-        fetchRemoteFiles();
-
+    public UploadSourcesResult uploadSources() throws IOException, ApiException {
         log.info("Scanning language files");
         // 扫描语言文件夹下的 en_us 目录，把文本上传到 paratranz
-        List<FileScanResult> fileList = getSourceFiles();
+        List<FileScanResult> fileList = getSourceFiles(true);
 
         log.info("Found files: {}", fileList.size());
-        for (FileScanResult item : fileList) {
-            File file = getAbsoluteFile(item.getSourceFilePath());
-            String remoteFolder = item.getTranslationFileFolder();
-            String remoteFileName = item.getTranslationFileName();
-
-            FilesDto remoteFile = remoteFilesMap.get(item.getTranslationFilePath());
-            if (remoteFile == null) {
-                uploadFile(remoteFolder, remoteFileName, file);
+        return uploadSources(fileList);
+    }
+
+    /**
+     * 上传指定的原文文件，用于只上传发生变化的文件
+     *
+     * @param fileList 扫描得到的文件，需要已计算MD5
+     */
+    public UploadSourcesResult uploadSources(List<FileScanResult> fileList) throws IOException, ApiException {
+        // 扫描远程服务器上已有的文件
+        fetchRemoteFiles();
+
+        UploadSourcesResult result = new UploadSourcesResult();
+
+        try (SyncJournal journal = openJournal(JOURNAL_UPLOAD_SOURCES)) {
+            int workers = Math.min(getJobs(), Math.max(fileList.size(), 1));
+            if (workers <= 1) {
+                for (FileScanResult item : fileList) {
+                    result.add(uploadSourceQuietly(item, journal));
+                }
             } else {
-                updateFile(remoteFile, remoteFolder, file);
+                log.info("Uploading with {} workers", workers);
+                ExecutorService executor = Executors.newFixedThreadPool(workers, new NamedThreadFactory("upload"));
+                try {
+                    List<Future<UploadSourceResult>> futures = new ArrayList<>(fileList.size());
+                    for (FileScanResult item : fileList) {
+                        futures.add(executor.submit(() -> uploadSourceQuietly(item, journal)));
+                    }
+                    for (Future<UploadSourceResult> future : futures) {
+                        result.add(future.get());
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IOException("Upload interrupted", e);
+                } catch (ExecutionException e) {
+                    // uploadSourceQuietly 不会抛出异常
+                    throw new IOException("Upload failed", e.getCause());
+                } finally {
+                    executor.shutdownNow();
+                }
             }
+            journal.finish(result.getFailedCount() == 0);
         }
-    }
 
-    public void updateFile(FilesDto remoteFile, String remoteFolder, File file) throws IOException, ApiException {
-        try (FileInputStream fis = new FileInputStream(file)) {
-            String md5 = DigestUtils.md5Hex(fis);
-            if (md5.equals(remoteFile.getHash())) {
-                log.info("[Not modified] {}/{}", remoteFolder, file.getName());
-                return;
+        flush();
+
+        log.info("Upload finished, new: {}, updated: {}, not modified: {}, failed: {}",
+                result.getNewCount(), result.getUpdatedCount(), result.getNotModifiedCount(), result.getFailedCount());
+        for (UploadSourceResult item : result.getItems()) {
+            if (UploadSourceResult.STATUS_FAILED.equals(item.getStatus())) {
+                log.warn("[Failed] {}: {}", item.getSourceFilePath(), item.getMessage());
             }
         }
+        return result;
+    }
+
+    /**
+     * 上传单个原文文件，并把异常转换为失败结果。任务日志中已完成的文件直接跳过。
+     */
+    private UploadSourceResult uploadSourceQuietly(FileScanResult scannedFile, SyncJournal journal) {
+        String key = scannedFile.getTranslationFilePath();
+        if (journal.isDone(key, scannedFile.getMd5())) {
+            log.info("[Resumed] {}", key);
+            UploadSourceResult result = new UploadSourceResult();
+            result.setSourceFilePath(scannedFile.getSourceFilePath());
+            result.setTranslationFilePath(key);
+            result.setStatus(UploadSourceResult.STATUS_NOT_MODIFIED);
+            result.setMessage("resumed");
+            return result;
+        }
+        try {
+            UploadSourceResult result = uploadSource(scannedFile);
+            journal.record(key, scannedFile.getMd5(), result.getStatus());
+            return result;
+        } catch (Exception e) {
+            log.error("Failed to upload: {}", scannedFile.getSourceFilePath(), e);
+            UploadSourceResult result = new UploadSourceResult();
+            result.setSourceFilePath(scannedFile.getSourceFilePath());
+            result.setTranslationFilePath(scannedFile.getTranslationFilePath());
+            result.setStatus(UploadSourceResult.STATUS_FAILED);
+            result.setMessage(e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName());
+            return result;
+        }
+    }
+
+    /**
+     * 上传单个原文文件。远程不存在时新建，存在且内容有变化时更新。
+     *
+     * @param scannedFile 扫描得到的文件
+     * @return 上传结果
+     */
+    public UploadSourceResult uploadSource(FileScanResult scannedFile) throws IOException, ApiException {
+        SourceFile file = getSourceFile(scannedFile.getSourceFilePath());
+        String remoteFolder = scannedFile.getTranslationFileFolder();
+        String remoteFileName = scannedFile.getTranslationFileName();
+
+        UploadSourceResult result = new UploadSourceResult();
+        result.setSourceFilePath(scannedFile.getSourceFilePath());
+        result.setTranslationFilePath(scannedFile.getTranslationFilePath());
+
+        // 生成上传 paratranz 的最终文件名。可用于比较远程文件是否已存在
+        FilesDto remoteFile = remoteFilesMap.get(scannedFile.getTranslationFilePath());
+        if (remoteFile == null) {
+            uploadFile(remoteFolder, remoteFileName, file);
+            result.setStatus(UploadSourceResult.STATUS_NEW);
+        } else if (updateFile(remoteFile, remoteFolder, file, scannedFile.getMd5())) {
+            result.setStatus(UploadSourceResult.STATUS_UPDATED);
+        } else {
+            result.setStatus(UploadSourceResult.STATUS_NOT_MODIFIED);
+        }
+        return result;
+    }
+
+    /**
+     * @return 上次下载译文是否没有全部完成，可以选择跳过已完成的文件
+     */
+    public boolean isDownloadInterrupted() {
+        return SyncJournal.exists(getWorkspacePath(), JOURNAL_DOWNLOAD_TRANSLATIONS);
+    }
+
+    /**
+     * 打开任务日志
+     */
+    private SyncJournal openJournal(String operation) throws IOException {
+        return SyncJournal.open(getWorkspacePath(), operation, resume);
+    }
+
+    /**
+     * 远程文件的元数据指纹，用于判断远程文件自上次处理后是否有变化
+     */
+    private static String getRemoteFingerprint(FilesDto remoteFile) {
+        return remoteFile.getId()
+                + ":" + getTime(remoteFile.getModifiedAt())
+                + ":" + getTime(remoteFile.getUpdatedAt())
+                + ":" + remoteFile.getTotal()
+                + ":" + remoteFile.getTranslated()
+                + ":" + remoteFile.getChecked()
+                + ":" + remoteFile.getReviewed()
+                + ":" + remoteFile.getHidden();
+    }
+
+    private static long getTime(Date date) {
+        return date == null ? 0L : date.getTime();
+    }
+
+    private int getJobs() {
+        if (jobs == null || jobs < 1) {
+            return DEFAULT_JOBS;
+        }
+        return Math.min(jobs, MAX_JOBS);
+    }
+
+    /**
+     * 更新远程原文文件
+     *
+     * @return 文件内容未变化时返回 false
+     */
+    public boolean updateFile(FilesDto remoteFile, String remoteFolder, File file) throws IOException, ApiException {
+        return updateFile(remoteFile, remoteFolder, file, null);
+    }
+
+    /**
+     * 更新远程原文文件
+     *
+     * @param md5 扫描时已计算的文件MD5，为空时从摘要清单中获取
+     * @return 文件内容未变化时返回 false
+     */
+    public boolean updateFile(FilesDto remoteFile, String remoteFolder, File file, String md5) throws IOException, ApiException {
+        return updateFile(remoteFile, remoteFolder, SourceFile.of(file.toPath()), md5);
+    }
+
+    /**
+     * 更新远程原文文件，源文件可以是压缩包中的条目
+     *
+     * @param md5 扫描时已计算的文件MD5，为空时从摘要清单中获取
+     * @return 文件内容未变化时返回 false
+     */
+    public boolean updateFile(FilesDto remoteFile, String remoteFolder, SourceFile file, String md5) throws IOException, ApiException {
+        if (md5 == null) {
+            md5 = hashManifest.md5Hex(file);
+        }
+        if (md5.equals(remoteFile.getHash())) {
+            log.info("[Not modified] {}/{}", remoteFolder, file.getName());
+            return false;
+        }
 
-        MultipartBody.Part filePart = MultipartBody.Part.createFormData("file", file.getName(),
-                RequestBody.create(Constants.MULTIPART_FORM_DATA, file));
+        MultipartBody.Part filePart = MultipartBody.Part.createFormData("file", file.getName(), toRequestBody(file));
 
-        Response<FileUploadRespDto> updateResp = filesApi.updateFile(projectId, remoteFile.getId(), filePart).execute();
-        if (updateResp.isSuccessful()) {
-            log.info("[Updated] {}/{}", remoteFolder, file.getName());
+        invalidateRemoteFiles();
+        try {
+            Response<FileUploadRespDto> updateResp = filesApi.updateFile(projectId, remoteFile.getId(), filePart).execute();
+            if (updateResp.isSuccessful()) {
+                log.info("[Updated] {}/{}", remoteFolder, file.getName());
+            }
+        } finally {
+            invalidateRemoteFiles();
         }
+        return true;
     }
 
     public void uploadFile(String remoteFolder, String remoteFileName, File file) throws IOException, ApiException {
+        uploadFile(remoteFolder, remoteFileName, SourceFile.of(file.toPath()));
+    }
+
+    /**
+     * 上传新的原文文件，源文件可以是压缩包中的条目
+     */
+    public void uploadFile(String remoteFolder, String remoteFileName, SourceFile file) throws IOException, ApiException {
 
         log.info("[NEW] {}/{}", remoteFolder, remoteFileName);
-        MultipartBody.Part filePart = MultipartBody.Part.createFormData("file", remoteFileName,
-                RequestBody.create(Constants.MULTIPART_FORM_DATA, file));
+        MultipartBody.Part filePart = MultipartBody.Part.createFormData("file", remoteFileName, toRequestBody(file));
 
         RequestBody pathPart = RequestBody.create(Constants.MULTIPART_FORM_DATA, remoteFolder);
 
-        Response<FileUploadRespDto> uploadResp = filesApi.uploadFile(projectId, pathPart, filePart).execute();
-        if (uploadResp.isSuccessful()) {
-            log.info("upload success: {}", uploadResp.body());
+        invalidateRemoteFiles();
+        try {
+            Response<FileUploadRespDto> uploadResp = filesApi.uploadFile(projectId, pathPart, filePart).execute();
+            if (uploadResp.isSuccessful()) {
+                log.info("upload success: {}", uploadResp.body());
+            }
+        } finally {
+            invalidateRemoteFiles();
         }
     }
 
+    /**
+     * 上传的文件内容。压缩包中的条目在发送请求时边解压边写出，不写入磁盘。
+     */
+    private static RequestBody toRequestBody(SourceFile file) throws IOException {
+        if (!file.isArchiveEntry()) {
+            return RequestBody.create(Constants.MULTIPART_FORM_DATA, file.getPath().toFile());
+        }
+
+        long size = file.size();
+        return new RequestBody() {
+            @Override
+            public MediaType contentType() {
+                return Constants.MULTIPART_FORM_DATA;
+            }
+
+            @Override
+            public long contentLength() {
+                return size;
+            }
+
+            @Override
+            public void writeTo(BufferedSink sink) throws IOException {
+                try (InputStream in = file.open()) {
+                    sink.writeAll(Okio.source(in));
+                }
+            }
+        };
+    }
+
     /**
      * 上传原始文件
      * 这个接口是给GUI用的，返回结果用于界面展示。
@@ -214,148 +602,335 @@ public class SyncService {
      * @throws ApiException
      */
     public String uploadSourceFile(FileScanResult scannedFile) throws IOException, ApiException {
-        File file = getAbsoluteFile(scannedFile.getSourceFilePath());
-        String remoteFolder = scannedFile.getTranslationFileFolder();
-        String remoteFileName = scannedFile.getTranslationFileName();
-
-        // 生成上传 paratranz 的最终文件名。可用于比较远程文件是否已存在
-        FilesDto remoteFile = remoteFilesMap.get(scannedFile.getTranslationFilePath());
-        if (remoteFile == null) {
-            uploadFile(remoteFolder, remoteFileName, file);
-            return I18n.getString("label.completed.newFile");
-        } else {
-            try (FileInputStream fis = new FileInputStream(file)) {
-                String md5 = DigestUtils.md5Hex(fis);
-                if (md5.equals(remoteFile.getHash())) {
-                    return I18n.getString("label.skipped.notModified");
-                }
-            }
-
-            MultipartBody.Part filePart = MultipartBody.Part.createFormData("file", file.getName(),
-                    RequestBody.create(Constants.MULTIPART_FORM_DATA, file));
-
-            Response<FileUploadRespDto> updateResp = filesApi.updateFile(projectId, remoteFile.getId(), filePart).execute();
-            if (updateResp.isSuccessful()) {
-                log.info("update success: {}", updateResp.body());
-            }
-
-            return I18n.getString("label.completed.updated");
+        UploadSourceResult result = uploadSource(scannedFile);
+        switch (result.getStatus()) {
+            case UploadSourceResult.STATUS_NEW:
+                return I18n.getString("label.completed.newFile");
+            case UploadSourceResult.STATUS_NOT_MODIFIED:
+                return I18n.getString("label.skipped.notModified");
+            default:
+                return I18n.getString("label.completed.updated");
         }
     }
 
     /**
      * 下载远程文件
+     * @return 每个文件的下载结果
      * @throws IOException
      * @throws ApiException
      */
-    public void downloadTranslations() throws IOException, ApiException {
-        // 扫描远程文件文件
-        fetchRemoteFiles();
-
+    public List<DownloadTranslationResult> downloadTranslations() throws IOException, ApiException {
         List<FileScanResult> sourceFiles = getSourceFiles();
+
+        // 项目和本地文件都没有变化时，不需要逐个检查远程文件
+        String projectStamp = getProjectStamp();
+        if (projectStamp != null && downloadState.isProjectUnchanged(projectStamp, getLocalDigest(sourceFiles))) {
+            log.info("Project not modified since last download");
+            return Collections.emptyList();
+        }
+
+        // 缓存的文件列表中的元数据可能已过期，必须重新获取才能判断哪些文件有变化
+        fetchRemoteFiles(true);
+
         if (sourceFiles.isEmpty() || remoteFiles.isEmpty()) {
             log.info("No files to download");
-            return;
+            return Collections.emptyList();
         }
 
         Map<String, FileScanResult> sourceFilesMap = sourceFiles.stream().collect(Collectors.toMap(FileScanResult::getTranslationFilePath, file -> file));
 
-        // 执行上传操作
+        List<FileDownloadRequest> requests = new ArrayList<>();
         for (FilesDto remoteFile : remoteFiles) {
             if (sourceFilesMap.containsKey(remoteFile.getName())) {
-                List<TranslationDto> translations = filesApi.getTranslate(projectId, remoteFile.getId()).execute().body();
-                if (translations == null || translations.isEmpty()) {
-                    log.info("缺少翻译: {}", remoteFile.getName());
-                } else {
-                    FileScanResult scannedFile = sourceFilesMap.get(remoteFile.getName());
-                    saveTranslations(remoteFile, translations, scannedFile.getSourceFilePath());
-                }
+                requests.add(FileDownloadRequest.of(remoteFile, sourceFilesMap.get(remoteFile.getName())));
             } else {
                 // remove everything not in source files
                 log.info("忽略远程文件: {}", remoteFile.getName());
             }
         }
+
+        List<DownloadTranslationResult> results = downloadTranslations(requests, (index, result) ->
+                log.info("[{}] {} {}", result.getStatus(), result.getFileName(), formatFileSize(result.getBytes())), () -> false);
+
+        long failed = results.stream().filter(it -> DownloadTranslationResult.STATUS_FAILED.equals(it.getStatus())).count();
+        log.info("Download finished, files: {}, failed: {}", results.size(), failed);
+
+        // 只有按最新的文件列表逐个判断过，才能记录项目标记，否则之后的下载会跳过未同步的修改
+        if (projectStamp != null && failed == 0 && remoteFilesFresh) {
+            downloadState.recordProject(projectStamp, getLocalDigest(sourceFiles));
+            flush();
+        }
+        return results;
     }
 
-    public String downloadTranslation(FilesDto remoteFile) throws IOException, ApiException {
-        List<TranslationDto> translations = filesApi.getTranslate(projectId, remoteFile.getId()).execute().body();
-        if (translations == null || translations.isEmpty()) {
-            return I18n.getString("label.skipped.notTranslated");
+    /**
+     * 项目的修改标记，由项目更新时间、统计信息的修改时间和词条数组成。
+     *
+     * @return 修改标记，未设置项目信息时返回 null
+     */
+    private String getProjectStamp() {
+        if (project == null || project.getStats() == null || !Objects.equals(project.getId(), projectId)) {
+            return null;
         }
+        ProjectStatsDto stats = project.getStats();
+        return project.getId() + ":" + getTime(project.getUpdatedAt()) + ":" + getTime(stats.getModifiedAt())
+                + ":" + stats.getTotal() + ":" + stats.getTranslated() + ":" + stats.getDisputed()
+                + ":" + stats.getChecked() + ":" + stats.getReviewed() + ":" + stats.getHidden();
+    }
 
-        DownloadTranslationResult result = saveTranslations(remoteFile, translations);
-        if ("skip".equals(result.getStatus())) {
-            return I18n.getString("label.skipped.notModified") + " " + formatFileSize(result.getBytes());
-        } else {
-            return I18n.getString("label.completed.updated") + " " + formatFileSize(result.getBytes());
+    /**
+     * 计算所有原文和对应译文文件的整体摘要，用于判断本地文件或扫描规则是否有变化。
+     */
+    private String getLocalDigest(List<FileScanResult> sourceFiles) throws IOException {
+        List<FileScanResult> sorted = new ArrayList<>(sourceFiles);
+        sorted.sort(Comparator.comparing(FileScanResult::getTranslationFilePath));
+
+        MessageDigest digest = FileDigests.newMd5();
+        for (FileScanResult file : sorted) {
+            File translationFile = getAbsoluteFile(file.getTranslationFilePath());
+            String line = file.getSourceFilePath() + "\t" + file.getTranslationFilePath()
+                    + "\t" + hashManifest.md5Hex(getSourceFile(file.getSourceFilePath()))
+                    + "\t" + (translationFile.isFile() ? hashManifest.md5Hex(translationFile) : "-") + "\n";
+            digest.update(line.getBytes(StandardCharsets.UTF_8));
         }
+        return Hex.encodeHexString(digest.digest());
     }
 
-    public String downloadTranslation(FileDownloadRequest remoteFile) throws IOException, ApiException {
-        List<TranslationDto> translations = filesApi.getTranslate(projectId, remoteFile.getId()).execute().body();
-        if (translations == null || translations.isEmpty()) {
-            return I18n.getString("label.skipped.notTranslated");
+    /**
+     * 同时下载多个译文文件，每个工作线程独立完成获取、合并和写入。同时下载的文件数由 jobs 决定。
+     *
+     * @param requests 下载请求
+     * @param listener 每个文件开始和结束时回调
+     * @param cancelled 返回 true 时不再开始新的文件，尚未开始的文件标记为已取消
+     * @return 下载结果，与请求的顺序一致
+     */
+    public List<DownloadTranslationResult> downloadTranslations(List<FileDownloadRequest> requests, DownloadListener listener,
+                                                                BooleanSupplier cancelled) throws IOException {
+        List<DownloadTranslationResult> results = new ArrayList<>(requests.size());
+        try (SyncJournal journal = openJournal(JOURNAL_DOWNLOAD_TRANSLATIONS)) {
+            int workers = Math.min(getJobs(), Math.max(requests.size(), 1));
+            if (workers <= 1) {
+                for (int i = 0; i < requests.size(); i++) {
+                    results.add(downloadQuietly(i, requests.get(i), journal, listener, cancelled));
+                }
+            } else {
+                log.info("Downloading with {} workers", workers);
+                ExecutorService executor = Executors.newFixedThreadPool(workers, new NamedThreadFactory("download"));
+                try {
+                    List<Future<DownloadTranslationResult>> futures = new ArrayList<>(requests.size());
+                    for (int i = 0; i < requests.size(); i++) {
+                        int index = i;
+                        futures.add(executor.submit(() -> downloadQuietly(index, requests.get(index), journal, listener, cancelled)));
+                    }
+                    for (Future<DownloadTranslationResult> future : futures) {
+                        results.add(future.get());
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IOException("Download interrupted", e);
+                } catch (ExecutionException e) {
+                    // downloadQuietly 不会抛出异常
+                    throw new IOException("Download failed", e.getCause());
+                } finally {
+                    executor.shutdownNow();
+                }
+            }
+            journal.finish(results.stream().noneMatch(it -> DownloadTranslationResult.STATUS_FAILED.equals(it.getStatus())
+                    || DownloadTranslationResult.STATUS_CANCELED.equals(it.getStatus())));
+        } finally {
+            flush();
         }
+        return results;
+    }
 
-        DownloadTranslationResult result = saveTranslations(remoteFile, translations, remoteFile.getSourceFilePath());
-        if ("skip".equals(result.getStatus())) {
-            return I18n.getString("label.skipped.notModified") + " " + formatFileSize(result.getBytes());
-        } else {
-            return I18n.getString("label.completed.updated") + " " + formatFileSize(result.getBytes());
+    /**
+     * 下载单个译文文件，并把异常转换为失败结果。
+     * <p>自上次下载以来没有变化的文件，以及任务日志中已完成的文件直接跳过，不请求远程译文。</p>
+     */
+    private DownloadTranslationResult downloadQuietly(int index, FileDownloadRequest request, SyncJournal journal,
+                                                      DownloadListener listener, BooleanSupplier cancelled) {
+        DownloadTranslationResult result;
+        if (cancelled.getAsBoolean()) {
+            result = new DownloadTranslationResult();
+            result.setFileName(request.getName());
+            result.setStatus(DownloadTranslationResult.STATUS_CANCELED);
+            listener.onComplete(index, result);
+            return result;
+        }
+
+        listener.onStart(index, request);
+        try {
+            String name = request.getName();
+            String remoteFingerprint = getRemoteFingerprint(request);
+            String sourceMd5 = hashManifest.md5Hex(getSourceFile(request.getSourceFilePath()));
+            // 任务日志同时记录写入后的本地译文，本地文件被修改或替换后不再视为已完成
+            String fingerprint = remoteFingerprint + ":" + sourceMd5 + ":";
+
+            File localFile = getAbsoluteFile(name);
+            String localMd5 = localFile.isFile() ? hashManifest.md5Hex(localFile) : null;
+
+            if (downloadState.isUnchanged(name, remoteFingerprint, sourceMd5, localMd5)) {
+                // 远程文件、原文和本地译文都没有变化，不需要获取译文
+                log.info("[Unchanged] {}", name);
+                result = new DownloadTranslationResult();
+                result.setFileName(name);
+                result.setStatus(DownloadTranslationResult.STATUS_NOT_MODIFIED);
+                result.setBytes((int) localFile.length());
+                result.setMd5(localMd5);
+                result.setMessage("unchanged");
+            } else if (localMd5 != null && journal.isDone(name, fingerprint + localMd5)) {
+                log.info("[Resumed] {}", name);
+                result = new DownloadTranslationResult();
+                result.setFileName(name);
+                result.setStatus(DownloadTranslationResult.STATUS_NOT_MODIFIED);
+                result.setMessage("resumed");
+            } else {
+                result = downloadTranslationFile(request);
+                if (DownloadTranslationResult.STATUS_NOT_TRANSLATED.equals(result.getStatus())) {
+                    downloadState.remove(name);
+                } else {
+                    downloadState.record(name, remoteFingerprint, sourceMd5, result.getMd5());
+                    journal.record(name, fingerprint + result.getMd5(), result.getStatus());
+                }
+            }
+        } catch (Exception e) {
+            log.error("Failed to download: {}", request.getName(), e);
+            result = new DownloadTranslationResult();
+            result.setFileName(request.getName());
+            result.setStatus(DownloadTranslationResult.STATUS_FAILED);
+            result.setMessage(e.getMessage());
         }
+        listener.onComplete(index, result);
+        return result;
     }
 
     /**
-     * 保存译文到文件
+     * 下载单个译文文件
      *
-     * @param remoteFile 源文件
-     * @param translations 翻译结果
-     * @return 文件大小
-     * @throws IOException 保存失败时抛出
+     * @param request 下载请求
+     * @return 下载结果
      */
-    public DownloadTranslationResult saveTranslations(FilesDto remoteFile, List<TranslationDto> translations) throws IOException {
-        DownloadTranslationResult result = new DownloadTranslationResult();
+    public DownloadTranslationResult downloadTranslationFile(FileDownloadRequest request) throws IOException {
+        TranslationSet translations = getTranslations(request);
+        if (translations == null || translations.isEmpty()) {
+            log.info("缺少翻译: {}", request.getName());
+            DownloadTranslationResult result = new DownloadTranslationResult();
+            result.setFileName(request.getName());
+            result.setStatus(DownloadTranslationResult.STATUS_NOT_TRANSLATED);
+            return result;
+        }
+        return saveTranslations(request, translations, request.getSourceFilePath());
+    }
 
-        // 创建一个 Map 用于存储翻译结果，使用 LinkedHashMap 保持插入顺序。
-        Map<String, String> map = new LinkedHashMap<>();
-        for (TranslationDto item : translations) {
-            StageEnum stage = StageEnum.of(item.getStage());
-            if (stage == StageEnum.HIDDEN || stage == StageEnum.UNTRANSLATED) {
-                map.put(item.getKey(), item.getOriginal());
-            } else {
-                map.put(item.getKey(), item.getTranslation());
+    /**
+     * 获取远程文件的词条。远程文件没有变化时使用本地译文库中的副本，
+     * 否则边接收远程响应边放入词条集合，同时写入本地译文库。
+     * <p>只有当前的文件列表刚从服务器获取，且其中的元数据与本地副本一致时才使用本地副本，
+     * 避免按缓存的列表使用过期的词条，覆盖网站上的修改。</p>
+     *
+     * @param remoteFile 远程文件
+     * @return 词条，远程没有返回内容时为 null
+     */
+    public TranslationSet getTranslations(FilesDto remoteFile) throws IOException {
+        String fingerprint = getRemoteFingerprint(remoteFile);
+        if (isListedFresh(remoteFile, fingerprint)) {
+            try {
+                TranslationSet stored = translationStore.load(remoteFile.getId(), fingerprint);
+                if (stored != null) {
+                    log.debug("使用本地译文库: {}", remoteFile.getName());
+                    return stored;
+                }
+            } catch (IOException e) {
+                log.warn("Failed to read translation store: {}", remoteFile.getName(), e);
             }
         }
 
-        String body = JsonUtils.toJson(map);
+        ResponseBody body = filesApi.getTranslateStream(projectId, remoteFile.getId()).execute().body();
+        if (body == null) {
+            try {
+                translationStore.remove(remoteFile.getId());
+            } catch (IOException e) {
+                log.warn("Failed to update translation store: {}", remoteFile.getName(), e);
+            }
+            return null;
+        }
 
-        File file = getAbsoluteFile(remoteFile.getName());
-        FileUtils.createParentDirectories(file);
+        TranslationSet translations = new TranslationSet(remoteFile.getTotal() == null ? 0 : remoteFile.getTotal());
+        TranslationStore.SnapshotWriter writer = null;
+        try (TranslationReader reader = new TranslationReader(body)) {
+            try {
+                writer = translationStore.create(remoteFile.getId(), fingerprint);
+            } catch (IOException e) {
+                log.warn("Failed to update translation store: {}", remoteFile.getName(), e);
+            }
 
-        // 文件存在
-        if (file.exists()) {
-            // 比较文件内容是否更新
-            try (FileInputStream fis = new FileInputStream(file)) {
-                String md5 = DigestUtils.md5Hex(fis);
-                String downloadMd5 = DigestUtils.md5Hex(body);
-                if (md5.equals(downloadMd5)) {
-                    log.info("File not modified: {}", remoteFile.getName());
-                    result.setStatus("skip");
-                } else {
-                    JsonUtils.writeFile(file, map);
-                    log.info("File updated: {}", remoteFile.getName());
-                    result.setStatus("update");
+            while (reader.hasNext()) {
+                TranslationDto item = reader.next();
+                translations.add(item);
+                if (writer != null) {
+                    try {
+                        writer.add(item);
+                    } catch (IOException e) {
+                        log.warn("Failed to update translation store: {}", remoteFile.getName(), e);
+                        writer.close();
+                        writer = null;
+                    }
                 }
             }
-        } else {
-            // 文件不存在，直接写入
-            JsonUtils.writeFile(file, map);
-            log.info("File saved: {}", remoteFile.getName());
-            result.setStatus("create");
+
+            if (writer != null) {
+                try {
+                    writer.commit();
+                } catch (IOException e) {
+                    log.warn("Failed to update translation store: {}", remoteFile.getName(), e);
+                }
+            }
+        } finally {
+            if (writer != null) {
+                writer.close();
+            }
         }
+        return translations;
+    }
 
-        result.setBytes(body.getBytes(StandardCharsets.UTF_8).length);
-        return result;
+    /**
+     * @return 远程文件是否在刚从服务器获取的文件列表中，且元数据没有变化
+     */
+    private boolean isListedFresh(FilesDto remoteFile, String fingerprint) {
+        FilesDto listed = remoteFilesMap.get(remoteFile.getName());
+        return remoteFilesFresh && listed != null && Objects.equals(listed.getId(), remoteFile.getId())
+                && fingerprint.equals(getRemoteFingerprint(listed));
+    }
+
+    /**
+     * 生成下载结果的提示文本
+     */
+    public static String getDownloadMessage(DownloadTranslationResult result) {
+        switch (result.getStatus()) {
+            case DownloadTranslationResult.STATUS_NOT_TRANSLATED:
+                return I18n.getString("label.skipped.notTranslated");
+            case DownloadTranslationResult.STATUS_NOT_MODIFIED:
+                return I18n.getString("label.skipped.notModified") + " " + formatFileSize(result.getBytes());
+            case DownloadTranslationResult.STATUS_FAILED:
+                return I18n.getString("label.failed") + (result.getMessage() != null ? result.getMessage() : I18n.getString("label.unknown"));
+            case DownloadTranslationResult.STATUS_CANCELED:
+                return I18n.getString("label.canceled");
+            default:
+                return I18n.getString("label.completed.updated") + " " + formatFileSize(result.getBytes());
+        }
+    }
+
+    public String downloadTranslation(FilesDto remoteFile) throws IOException, ApiException {
+        TranslationSet translations = getTranslations(remoteFile);
+        if (translations == null || translations.isEmpty()) {
+            return I18n.getString("label.skipped.notTranslated");
+        }
+
+        return getDownloadMessage(saveTranslations(remoteFile, translations));
+    }
+
+    public String downloadTranslation(FileDownloadRequest remoteFile) throws IOException, ApiException {
+        return getDownloadMessage(downloadTranslationFile(remoteFile));
     }
 
     /**
@@ -363,64 +938,88 @@ public class SyncService {
      *
      * @param remoteFile 源文件
      * @param translations 翻译结果
-     * @param sourceFilePath 源文件路径
      * @return 文件大小
      * @throws IOException 保存失败时抛出
      */
-    public DownloadTranslationResult saveTranslations(FilesDto remoteFile, List<TranslationDto> translations, String sourceFilePath) throws IOException {
-        // read source json
-        File sourceFile = getAbsoluteFile(sourceFilePath);
-        Type mapType = new TypeToken<Map<String, Object>>() {}.getType();
-        Map<String, Object> sourceDict = JsonUtils.readFile(sourceFile, mapType);
+    public DownloadTranslationResult saveTranslations(FilesDto remoteFile, TranslationSet translations) throws IOException {
+        // 按键第一次出现的顺序写出，重复的键使用最后一次的值，与放入 LinkedHashMap 后序列化的结果一致
+        boolean[] written = new boolean[translations.getPaths().size()];
+        JsonBuffer buffer = JsonBuffer.write(writer -> {
+            JsonWriter out = JsonUtils.GSON.newJsonWriter(writer);
+            out.beginObject();
+            for (int row = 0; row < translations.size(); row++) {
+                int node = translations.getNode(row);
+                if (!written[node]) {
+                    written[node] = true;
+                    out.name(translations.getKey(row)).value(translations.getExportValue(node));
+                }
+            }
+            out.endObject();
+            out.flush();
+        });
+        return writeTranslations(remoteFile, buffer);
+    }
 
-        DownloadTranslationResult result = new DownloadTranslationResult();
+    /**
+     * 保存译文到文件
+     *
+     * @param remoteFile 源文件
+     * @param translations 翻译结果
+     * @param sourceFilePath 源文件路径
+     * @return 文件大小
+     * @throws IOException 保存失败时抛出
+     */
+    public DownloadTranslationResult saveTranslations(FilesDto remoteFile, TranslationSet translations, String sourceFilePath) throws IOException {
+        SourceFile sourceFile = getSourceFile(sourceFilePath);
 
-        // 创建一个 Map 用于存储翻译结果，使用 LinkedHashMap 保持插入顺序。
-        Map<String, String> translatedDict = new LinkedHashMap<>();
-        for (TranslationDto item : translations) {
-            StageEnum stage = StageEnum.of(item.getStage());
-            if (stage == StageEnum.HIDDEN || stage == StageEnum.UNTRANSLATED) {
-                translatedDict.put(item.getKey(), item.getOriginal());
-            } else {
-                translatedDict.put(item.getKey(), item.getTranslation());
+        // 流式读取源文件，逐个替换译文。压缩包中的条目直接从压缩包读取
+        JsonBuffer buffer = JsonBuffer.write(writer -> {
+            try (Reader reader = new InputStreamReader(sourceFile.open(), StandardCharsets.UTF_8)) {
+                StreamingJson.merge(reader, writer, translations.getPaths(), translations::getExportValue);
             }
-        }
+        });
+        return writeTranslations(remoteFile, buffer);
+    }
 
-        // 递归更新嵌套结构
-        updateNestedStructure(sourceDict, translatedDict, null);
-        String body = JsonUtils.toJson(sourceDict);
+    /**
+     * 将译文写入本地文件。与现有文件一致时不写入。
+     *
+     * @param remoteFile 远程文件
+     * @param buffer 已序列化的内容
+     * @return 写入结果
+     */
+    private DownloadTranslationResult writeTranslations(FilesDto remoteFile, JsonBuffer buffer) throws IOException {
+        DownloadTranslationResult result = new DownloadTranslationResult();
+        result.setFileName(remoteFile.getName());
 
         File file = getAbsoluteFile(remoteFile.getName());
         FileUtils.createParentDirectories(file);
 
         // 文件存在
-        if (file.exists()) {
-            // 比较文件内容是否更新
-            try (FileInputStream fis = new FileInputStream(file)) {
-                String md5 = DigestUtils.md5Hex(fis);
-                String downloadMd5 = DigestUtils.md5Hex(body);
-                if (md5.equals(downloadMd5)) {
-                    log.info("File not modified: {}", remoteFile.getName());
-                    result.setStatus("skip");
-                } else {
-                    JsonUtils.writeFile(file, sourceDict);
-                    log.info("File updated: {}", remoteFile.getName());
-                    result.setStatus("update");
-                }
+        if (file.isFile()) {
+            // 比较文件内容是否更新，大小不同时无需计算摘要
+            if (file.length() == buffer.size() && buffer.md5Hex().equals(hashManifest.md5Hex(file))) {
+                log.info("File not modified: {}", remoteFile.getName());
+                result.setStatus(DownloadTranslationResult.STATUS_NOT_MODIFIED);
+            } else {
+                buffer.writeTo(file);
+                log.info("File updated: {}", remoteFile.getName());
+                result.setStatus(DownloadTranslationResult.STATUS_UPDATED);
             }
         } else {
             // 文件不存在，直接写入
-            JsonUtils.writeFile(file, sourceDict);
+            buffer.writeTo(file);
             log.info("File saved: {}", remoteFile.getName());
-            result.setStatus("create");
+            result.setStatus(DownloadTranslationResult.STATUS_CREATED);
         }
 
-        result.setBytes(body.getBytes(StandardCharsets.UTF_8).length);
+        result.setBytes(buffer.size());
+        result.setMd5(buffer.md5Hex());
         return result;
     }
 
     /**
-     * 递归更新嵌套的 JSON 结构
+     * 递归更新嵌套的 JSON 结构，流式版本见 {@link StreamingJson#merge(java.io.Reader, java.io.Writer, KeyPathTrie, java.util.function.IntFunction)}
      */
     public static void updateNestedStructure(Map<String, Object> targetMap, Map<String, String> translatedDict, String parentKey) {
         for (Map.Entry<String, Object> entry : targetMap.entrySet()) {
@@ -485,7 +1084,8 @@ public class SyncService {
      * @throws ApiException
      */
     public void uploadTranslations(Boolean force) throws IOException, ApiException {
-        fetchRemoteFiles();
+        // 按远程译文计算差异，不能使用缓存的列表
+        fetchRemoteFiles(true);
 
         if (remoteFiles == null || remoteFiles.isEmpty()) {
             log.info("No remote files found");
@@ -498,13 +1098,53 @@ public class SyncService {
             return;
         }
 
-        for (FileScanResult file : fileList) {
-            String filePath = file.getTranslationFilePath();
-            FilesDto remoteFile = remoteFilesMap.get(filePath);
-            if (remoteFile != null) {
-                uploadTranslation(remoteFile, force);
+        try (SyncJournal journal = openJournal(JOURNAL_UPLOAD_TRANSLATIONS)) {
+            // 先确定需要上传的文件，再按顺序预取远程译文
+            List<FilesDto> pendingFiles = new ArrayList<>();
+            List<String> fingerprints = new ArrayList<>();
+            for (FileScanResult file : fileList) {
+                String filePath = file.getTranslationFilePath();
+                FilesDto remoteFile = remoteFilesMap.get(filePath);
+                if (remoteFile == null) {
+                    continue;
+                }
+
+                File localFile = getAbsoluteFile(filePath);
+                if (!localFile.isFile()) {
+                    log.info("File not exist: {}", filePath);
+                    continue;
+                }
+
+                String fingerprint = hashManifest.md5Hex(localFile) + ":" + Boolean.TRUE.equals(force);
+                if (journal.isDone(filePath, fingerprint)) {
+                    log.info("[Resumed] {}", filePath);
+                    continue;
+                }
+                pendingFiles.add(remoteFile);
+                fingerprints.add(fingerprint);
             }
+
+            try (TranslationPrefetcher prefetcher = newPrefetcher(pendingFiles)) {
+                for (int i = 0; i < pendingFiles.size(); i++) {
+                    FilesDto remoteFile = pendingFiles.get(i);
+                    uploadTranslation(remoteFile, prefetcher.next(), force);
+                    journal.record(remoteFile.getName(), fingerprints.get(i), "done");
+                }
+            }
+            // 上传失败时抛出异常，保留日志；执行到这里说明全部完成
+            journal.finish(true);
         }
+        flush();
+    }
+
+    /**
+     * 创建译文预取器，预取数量和内存预算由配置决定
+     */
+    private TranslationPrefetcher newPrefetcher(List<? extends FilesDto> files) {
+        int window = prefetch == null || prefetch < 1 ? DEFAULT_PREFETCH : prefetch;
+        // 预取的译文最多占用四分之一的堆内存
+        long memoryBudget = Runtime.getRuntime().maxMemory() / 4;
+        return new TranslationPrefetcher(this::getTranslations, files, window, memoryBudget);
     }
 
     public String uploadTranslation(FilesDto remoteFile, Boolean force) throws IOException, ApiException {
@@ -517,64 +1157,82 @@ public class SyncService {
         }
 
         // 读取远程译文
-        List<TranslationDto> translations = filesApi.getTranslate(projectId, remoteFile.getId()).execute().body();
+        TranslationSet translations = getTranslations(remoteFile);
+        return uploadTranslation(remoteFile, translations, force);
+    }
+
+    /**
+     * 上传译文
+     *
+     * @param remoteFile 远程文件
+     * @param translations 已获取的远程译文
+     * @param force 是否强制上传未翻译内容
+     */
+    private String uploadTranslation(FilesDto remoteFile, TranslationSet translations, Boolean force) throws IOException, ApiException {
+        String relativePath = remoteFile.getName();
+        File file = getAbsoluteFile(relativePath);
         if (translations == null || translations.isEmpty()) {
             log.info("Not translated: {}", relativePath);
             return I18n.getString("label.skipped.notTranslated");
         }
 
-        // 读取本地汉化文件
-        Type mapType = new TypeToken<Map<String, Object>>() {}.getType();
-        Map<String, Object> sourceMap = JsonUtils.readFile(file, mapType);
-
-        Map<String, String> flatSourceMap = new LinkedHashMap<>();
-
-        flattenNestedStructure(sourceMap, flatSourceMap, null);
-
-        int count = 0;// 处理词条数
-        for (TranslationDto item : translations) {
-            String key = item.getKey();
-            StageEnum stage = StageEnum.of(item.getStage());
+        // 流式读取本地汉化文件，只取远程已有的词条
+        KeyPathTrie paths = translations.getPaths();
+        String[] localByNode = new String[paths.size()];
+        StreamingJson.flatten(file, paths, (value, node) -> localByNode[node] = value);
+
+        // 对比本地译文与远程译文，收集需要更新的词条的行号
+        int[] resetRows = new int[translations.size()];
+        int resetCount = 0;
+        int[] changedRows = new int[translations.size()];
+        List<String> changedValues = new ArrayList<>();
+        for (int row = 0; row < translations.size(); row++) {
+            StageEnum stage = StageEnum.of(translations.getStage(row));
             if (stage == StageEnum.HIDDEN) {
                 // 隐藏词条，不翻译
                 continue;
             }
 
-            if (flatSourceMap.containsKey(key)) {
-                String value = flatSourceMap.get(key);
-                if (value.equals(item.getOriginal())) {
+            String value = localByNode[translations.getNode(row)];
+            if (value != null) {
+                if (value.equals(translations.getOriginal(row))) {
                     // 译文和原文相同，属于未翻译内容。
                     if (stage != StageEnum.UNTRANSLATED && Boolean.TRUE.equals(force)) {
                         // 强制标记为未翻译
-                        StringItem stringItem = new StringItem();
-                        stringItem.setKey(key);
-                        stringItem.setOriginal(item.getOriginal());
-                        stringItem.setTranslation(value);
-                        stringItem.setStage(StageEnum.UNTRANSLATED.getValue());
-                        stringItem.setContext(item.getContext());
-
-                        stringsApi.updateString(projectId, item.getId(), stringItem).execute();
-                        log.debug("重置为未翻译, key:{} , stage:{}", key, stage.getDesc());
-                        count++;
-                    }
-                } else {
-                    if (!value.equals(item.getTranslation())) {
-                        StringItem stringItem = new StringItem();
-                        stringItem.setKey(key);
-                        stringItem.setOriginal(item.getOriginal());
-                        stringItem.setTranslation(value);
-                        stringItem.setStage(StageEnum.TRANSLATED.getValue());
-                        stringItem.setContext(item.getContext());
-
-                        stringsApi.updateString(projectId, item.getId(), stringItem).execute();
-                        log.debug("更新词条, key:{}, value:{} -> {}", key, item.getTranslation(), value);
-                        count++;
+                        resetRows[resetCount++] = row;
                     }
+                } else if (!value.equals(translations.getTranslation(row))) {
+                    changedRows[changedValues.size()] = row;
+                    changedValues.add(value);
                 }
-            } else {
-                log.debug("{} 没有找到译文词条: {}", relativePath, key);
+            } else if (log.isDebugEnabled()) {
+                log.debug("{} 没有找到译文词条: {}", relativePath, translations.getKey(row));
             }
         }
+        resetRows = Arrays.copyOf(resetRows, resetCount);
+        changedRows = Arrays.copyOf(changedRows, changedValues.size());
+
+        int count = resetRows.length + changedRows.length;// 处理词条数
+        if (count > 0) {
+            invalidateRemoteFiles();
+        }
+
+        try {
+            resetStages(translations, resetRows);
+
+            if (changedRows.length > 0) {
+                uploadChangedStrings(remoteFile, translations, changedRows, changedValues);
+            }
+        } finally {
+            if (count > 0) {
+                invalidateRemoteFiles();
+            }
+        }
+
+        if (count > 0) {
+            patchTranslationStore(remoteFile, translations, resetRows, changedRows, changedValues);
+        }
+
         log.info("上传译文完成: {}, 更新词条数: {}", relativePath, count);
         if (count > 0) {
             return I18n.getString("label.completed.updated") + " " + count + I18n.getString("label.strings");
@@ -584,7 +1242,168 @@ public class SyncService {
     }
 
     /**
-     * 打平嵌套的JSON数据结构
+     * 把上传后的译文和状态追加到本地译文库
+     */
+    private void patchTranslationStore(FilesDto remoteFile, TranslationSet translations, int[] resetRows,
+                                       int[] changedRows, List<String> changedValues) {
+        List<TranslationDto> updates = new ArrayList<>(resetRows.length + changedRows.length);
+        for (int row : resetRows) {
+            TranslationDto update = new TranslationDto();
+            update.setId(translations.getId(row));
+            update.setStage(StageEnum.UNTRANSLATED.getValue());
+            updates.add(update);
+        }
+        for (int i = 0; i < changedRows.length; i++) {
+            TranslationDto update = new TranslationDto();
+            update.setId(translations.getId(changedRows[i]));
+            update.setTranslation(changedValues.get(i));
+            update.setStage(StageEnum.TRANSLATED.getValue());
+            updates.add(update);
+        }
+        try {
+            translationStore.patch(remoteFile.getId(), updates);
+        } catch (IOException e) {
+            log.warn("Failed to update translation store: {}", remoteFile.getName(), e);
+        }
+    }
+
+    /**
+     * 把词条批量重置为未翻译状态，每批最多 {@link #STAGE_RESET_BATCH_SIZE} 条。
+     * <p>批量接口只修改状态，不修改译文。未翻译词条导出时使用原文，因此不影响下载结果。</p>
+     */
+    private void resetStages(TranslationSet translations, int[] rows) throws IOException, ApiException {
+        for (int from = 0; from < rows.length; from += STAGE_RESET_BATCH_SIZE) {
+            int to = Math.min(from + STAGE_RESET_BATCH_SIZE, rows.length);
+
+            List<Integer> ids = new ArrayList<>(to - from);
+            for (int i = from; i < to; i++) {
+                ids.add(translations.getId(rows[i]));
+            }
+
+            UpdateStringsReqDto request = new UpdateStringsReqDto();
+            request.setOp("update");
+            request.setId(ids);
+            request.setStage(StageEnum.UNTRANSLATED.getValue());
+            try {
+                stringsApi.updateStrings(projectId, request).execute();
+                log.debug("批量重置为未翻译, count:{}", ids.size());
+            } catch (ApiException e) {
+                log.warn("批量重置失败，改为逐条更新: {}", e.getMessage());
+                for (int i = from; i < to; i++) {
+                    TranslationDto item = translations.toDto(rows[i]);
+                    updateString(item, item.getOriginal(), StageEnum.UNTRANSLATED);
+                    log.debug("重置为未翻译, key:{} , stage:{}", item.getKey(), StageEnum.of(item.getStage()).getDesc());
+                }
+            }
+        }
+    }
+
+    /**
+     * 逐条更新词条
+     */
+    private void updateString(TranslationDto item, String translation, StageEnum stage) throws IOException, ApiException {
+        StringItem stringItem = new StringItem();
+        stringItem.setKey(item.getKey());
+        stringItem.setOriginal(item.getOriginal());
+        stringItem.setTranslation(translation);
+        stringItem.setStage(stage.getValue());
+        stringItem.setContext(item.getContext());
+
+        stringsApi.updateString(projectId, item.getId(), stringItem).execute();
+    }
+
+    /**
+     * 上传变化的译文。远程尚未翻译的词条没有他人的编辑，在更划算时通过一次请求导入，不强制覆盖；
+     * 远程已有译文的词条，以及导入失败时，逐条更新。
+     */
+    private void uploadChangedStrings(FilesDto remoteFile, TranslationSet translations, int[] rows, List<String> values) throws IOException, ApiException {
+        boolean[] inBulk = new boolean[rows.length];
+        int bulkCount = 0;
+        for (int i = 0; i < rows.length; i++) {
+            if (StageEnum.of(translations.getStage(rows[i])) == StageEnum.UNTRANSLATED) {
+                inBulk[i] = true;
+                bulkCount++;
+            }
+        }
+
+        boolean imported = false;
+        if (isBulkUploadCheaper(bulkCount, translations.size())) {
+            int[] bulkRows = new int[bulkCount];
+            List<String> bulkValues = new ArrayList<>(bulkCount);
+            for (int i = 0; i < rows.length; i++) {
+                if (inBulk[i]) {
+                    bulkRows[bulkValues.size()] = rows[i];
+                    bulkValues.add(values.get(i));
+                }
+            }
+            imported = uploadTranslationsInBulk(remoteFile, translations, bulkRows, bulkValues);
+            if (imported) {
+                log.debug("批量更新词条, file:{}, count:{}", remoteFile.getName(), bulkCount);
+            }
+        }
+
+        for (int i = 0; i < rows.length; i++) {
+            if (imported && inBulk[i]) {
+                continue;
+            }
+            TranslationDto item = translations.toDto(rows[i]);
+            String value = values.get(i);
+            updateString(item, value, StageEnum.TRANSLATED);
+            log.debug("更新词条, key:{}, value:{} -> {}", item.getKey(), item.getTranslation(), value);
+        }
+    }
+
+    /**
+     * 估算批量导入是否比逐条更新更快。
+     * <p>逐条更新每个词条都要一次往返。批量导入只需一次请求，但服务端要按整个文件比对、生成修订记录：
+     * 固定开销约相当于 {@link #BULK_UPLOAD_OVERHEAD_REQUESTS} 次普通请求，
+     * 另外每 {@link #BULK_UPLOAD_STRINGS_PER_REQUEST} 个词条约相当于一次请求。
+     * 因此大文件中只改了少数词条时仍然逐条更新。</p>
+     *
+     * @param changed 可以批量导入的词条数
+     * @param total 文件的词条总数
+     */
+    private static boolean isBulkUploadCheaper(int changed, int total) {
+        return changed > BULK_UPLOAD_OVERHEAD_REQUESTS + total / BULK_UPLOAD_STRINGS_PER_REQUEST;
+    }
+
+    /**
+     * 把变化的词条组装为 paratranz 标准 JSON 格式，通过一次请求导入。
+     *
+     * @return 导入失败时返回 false，由调用方改为逐条更新
+     */
+    private boolean uploadTranslationsInBulk(FilesDto remoteFile, TranslationSet translations, int[] rows, List<String> values) throws IOException {
+        List<StringItem> payload = new ArrayList<>(rows.length);
+        for (int i = 0; i < rows.length; i++) {
+            int row = rows[i];
+            StringItem stringItem = new StringItem();
+            stringItem.setKey(translations.getKey(row));
+            stringItem.setOriginal(translations.getOriginal(row));
+            stringItem.setTranslation(values.get(i));
+            stringItem.setStage(StageEnum.TRANSLATED.getValue());
+            stringItem.setContext(translations.getContext(row));
+            payload.add(stringItem);
+        }
+        byte[] body = JsonUtils.toJson(payload).getBytes(StandardCharsets.UTF_8);
+
+        // 使用远程文件原本的文件名，原文都是 .json 文件，标准JSON格式的内容可以直接识别
+        String name = remoteFile.getName();
+        String fileName = name.substring(name.lastIndexOf(SEPARATOR) + 1);
+        MultipartBody.Part filePart = MultipartBody.Part.createFormData("file", fileName,
+                RequestBody.create(Constants.MULTIPART_FORM_DATA, body));
+
+        try {
+            // 不强制覆盖：获取译文之后他人人工编辑过的词条保持不变
+            Response<FileUploadRespDto> resp = filesApi.updateTranslate(projectId, remoteFile.getId(), filePart, false).execute();
+            return resp.isSuccessful();
+        } catch (ApiException e) {
+            log.warn("批量导入译文失败，改为逐条更新: {}, {}", name, e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * 打平嵌套的JSON数据结构，流式版本见 {@link StreamingJson#flatten(java.io.Reader, java.util.function.BiConsumer)}
      */
     public static void flattenNestedStructure(Map<String, Object> sourceMap, Map<String, String> toSave, String parentKey) {
         for (Map.Entry<String, Object> entry : sourceMap.entrySet()) {
@@ -646,6 +1465,13 @@ public class SyncService {
         return parentKey == null || parentKey.isEmpty() ? index + "" : parentKey + "->" + index;
     }
 
+    /**
+     * @param relativePath 扫描结果中的源文件路径，可以是压缩包中的条目
+     */
+    public SourceFile getSourceFile(String relativePath) {
+        return SourceFile.of(Paths.get(workDir), relativePath);
+    }
+
     public File getAbsoluteFile(String relativePath) {
         return new File(workDir + SEPARATOR + relativePath);
     }
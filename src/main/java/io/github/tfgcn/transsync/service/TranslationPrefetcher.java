@@ -0,0 +1,129 @@
+package io.github.tfgcn.transsync.service;
+
+import io.github.tfgcn.transsync.paratranz.error.ApiException;
+import io.github.tfgcn.transsync.paratranz.model.files.FilesDto;
+import io.github.tfgcn.transsync.utils.NamedThreadFactory;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * desc: 译文预取
+ * <p>按顺序处理文件时，提前请求后续文件的译文，使本地处理与网络请求同时进行。</p>
+ * <p>同时进行的请求数不超过 window；已请求但未取走的译文按词条数估算内存占用，总量不超过 memoryBudget。
+ * 单个文件超出预算时仍会请求，但不会与其他文件同时缓存。</p>
+ *
+ * @author yanmaoyuan
+ */
+@Slf4j
+public class TranslationPrefetcher implements Closeable {
+
+    /**
+     * 每个词条估算占用的内存，含键、原文、译文及对象开销
+     */
+    private static final long ESTIMATED_BYTES_PER_STRING = 512L;
+
+    private final Loader loader;
+    private final List<? extends FilesDto> files;
+    private final int window;
+    private final long memoryBudget;
+    private final ExecutorService executor;
+
+    private final Deque<Future<TranslationSet>> pending = new ArrayDeque<>();
+    private int submitted;// 已提交请求的文件数
+    private int consumed;// 已取走译文的文件数
+    private long pendingBytes;// 已提交但未取走的译文估算大小
+
+    /**
+     * 获取单个文件的译文
+     */
+    @FunctionalInterface
+    public interface Loader {
+        TranslationSet load(FilesDto file) throws IOException;
+    }
+
+    /**
+     * @param loader 获取译文的方法，会在预取线程中调用
+     * @param files 需要获取译文的文件，按处理顺序排列
+     * @param window 最多提前请求的文件数
+     * @param memoryBudget 预取译文的内存预算，字节
+     */
+    public TranslationPrefetcher(Loader loader, List<? extends FilesDto> files, int window, long memoryBudget) {
+        this.loader = loader;
+        this.files = files;
+        this.window = Math.max(window, 1);
+        this.memoryBudget = memoryBudget;
+        this.executor = Executors.newFixedThreadPool(this.window, new NamedThreadFactory("prefetch"));
+        fill();
+    }
+
+    /**
+     * 按顺序获取下一个文件的译文，必要时等待请求完成
+     *
+     * @return 译文，远程没有译文时可能为 null
+     */
+    public TranslationSet next() throws IOException, ApiException {
+        if (pending.isEmpty()) {
+            throw new NoSuchElementException();
+        }
+
+        Future<TranslationSet> future = pending.pollFirst();
+        pendingBytes -= estimate(files.get(consumed++));
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Prefetch interrupted", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            }
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new IOException(cause);
+        } finally {
+            fill();
+        }
+    }
+
+    @Override
+    public void close() {
+        for (Future<TranslationSet> future : pending) {
+            future.cancel(true);
+        }
+        pending.clear();
+        executor.shutdownNow();
+    }
+
+    /**
+     * 在窗口和内存预算允许的范围内提交后续文件的请求
+     */
+    private void fill() {
+        while (submitted < files.size() && pending.size() < window) {
+            FilesDto file = files.get(submitted);
+            long bytes = estimate(file);
+            if (!pending.isEmpty() && pendingBytes + bytes > memoryBudget) {
+                break;
+            }
+            pending.addLast(executor.submit(() -> loader.load(file)));
+            pendingBytes += bytes;
+            submitted++;
+        }
+    }
+
+    private static long estimate(FilesDto file) {
+        Integer total = file.getTotal();
+        return (total == null ? 0 : total) * ESTIMATED_BYTES_PER_STRING;
+    }
+}
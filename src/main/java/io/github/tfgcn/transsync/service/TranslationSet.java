@@ -0,0 +1,258 @@
+package io.github.tfgcn.transsync.service;
+
+import io.github.tfgcn.transsync.paratranz.model.StageEnum;
+import io.github.tfgcn.transsync.paratranz.model.files.TranslationDto;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * desc: 一个远程文件的全部词条，按列存放
+ * <p>每个词条占一行，id、状态、键、原文、译文、上下文分别存放在平行数组中，不为每个词条创建对象。
+ * 键放入 {@link KeyPathTrie}，只保存节点编号，可以直接用于 {@link StreamingJson} 的打平与合并；
+ * 原文与译文中相同的字符串只保留一份。</p>
+ * <p>同一个键出现多次时，按键查找得到最后一行，与放入 Map 的结果一致。</p>
+ *
+ * @author yanmaoyuan
+ */
+public final class TranslationSet {
+
+    /**
+     * 不存在的行
+     */
+    public static final int NONE = -1;
+
+    private static final byte NULL_STAGE = Byte.MIN_VALUE;// 状态为 null
+    private static final int INITIAL_CAPACITY = 16;
+
+    private final KeyPathTrie paths;
+    private int size;
+    private int[] ids;
+    private byte[] stages;
+    private int[] nodes;
+    private String[] originals;
+    private String[] translations;
+    private String[] contexts;
+    private int[] rowByNode;// 每个节点最后一次出现的行，NONE 表示没有
+
+    private String[] pool;// 原文和译文的字符串池
+    private int poolSize;
+
+    public TranslationSet() {
+        this(INITIAL_CAPACITY);
+    }
+
+    /**
+     * @param expectedSize 预计的词条数
+     */
+    public TranslationSet(int expectedSize) {
+        int capacity = Math.max(INITIAL_CAPACITY, expectedSize);
+        paths = new KeyPathTrie(capacity);
+        ids = new int[capacity];
+        stages = new byte[capacity];
+        nodes = new int[capacity];
+        originals = new String[capacity];
+        translations = new String[capacity];
+        contexts = new String[capacity];
+        rowByNode = new int[capacity * 2];
+        Arrays.fill(rowByNode, NONE);
+        pool = new String[Integer.highestOneBit(capacity * 2 - 1) << 1];
+    }
+
+    /**
+     * 添加词条
+     *
+     * @param item 词条
+     * @return 行号
+     */
+    public int add(TranslationDto item) {
+        return add(item.getId(), item.getKey(), item.getOriginal(), item.getTranslation(), item.getStage(), item.getContext());
+    }
+
+    /**
+     * 添加词条
+     *
+     * @return 行号
+     */
+    public int add(int id, String key, String original, String translation, Integer stage, String context) {
+        if (size == ids.length) {
+            int capacity = size * 2;
+            ids = Arrays.copyOf(ids, capacity);
+            stages = Arrays.copyOf(stages, capacity);
+            nodes = Arrays.copyOf(nodes, capacity);
+            originals = Arrays.copyOf(originals, capacity);
+            translations = Arrays.copyOf(translations, capacity);
+            contexts = Arrays.copyOf(contexts, capacity);
+        }
+
+        int row = size++;
+        int node = paths.add(key);
+        ids[row] = id;
+        stages[row] = stage == null ? NULL_STAGE : stage.byteValue();
+        nodes[row] = node;
+        originals[row] = intern(original);
+        translations[row] = intern(translation);
+        contexts[row] = context;
+
+        if (node >= rowByNode.length) {
+            int length = rowByNode.length;
+            rowByNode = Arrays.copyOf(rowByNode, Math.max(paths.size(), length * 2));
+            Arrays.fill(rowByNode, length, rowByNode.length, NONE);
+        }
+        rowByNode[node] = row;
+        return row;
+    }
+
+    /**
+     * @return 词条数
+     */
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * @return 全部键组成的字典树
+     */
+    public KeyPathTrie getPaths() {
+        return paths;
+    }
+
+    public int getId(int row) {
+        return ids[row];
+    }
+
+    public Integer getStage(int row) {
+        byte stage = stages[row];
+        return stage == NULL_STAGE ? null : (int) stage;
+    }
+
+    /**
+     * @return 键在字典树中的节点
+     */
+    public int getNode(int row) {
+        return nodes[row];
+    }
+
+    /**
+     * 生成键，只在需要完整键时调用
+     */
+    public String getKey(int row) {
+        return paths.keyOf(nodes[row]);
+    }
+
+    public String getOriginal(int row) {
+        return originals[row];
+    }
+
+    public String getTranslation(int row) {
+        return translations[row];
+    }
+
+    public String getContext(int row) {
+        return contexts[row];
+    }
+
+    public void setTranslation(int row, String translation) {
+        translations[row] = translation;
+    }
+
+    public void setStage(int row, Integer stage) {
+        stages[row] = stage == null ? NULL_STAGE : stage.byteValue();
+    }
+
+    /**
+     * 查找节点对应的行，键重复时返回最后一行
+     *
+     * @param node 字典树节点
+     * @return 行号，不存在时返回 {@link #NONE}
+     */
+    public int rowOf(int node) {
+        return node >= 0 && node < rowByNode.length ? rowByNode[node] : NONE;
+    }
+
+    /**
+     * 导出到本地文件的值：隐藏和未翻译的词条使用原文，其他使用译文
+     *
+     * @param node 字典树节点
+     * @return 导出值，节点没有词条时返回 null
+     */
+    public String getExportValue(int node) {
+        int row = rowOf(node);
+        if (row == NONE) {
+            return null;
+        }
+        StageEnum stage = StageEnum.of(getStage(row));
+        if (stage == StageEnum.HIDDEN || stage == StageEnum.UNTRANSLATED) {
+            return originals[row];
+        }
+        return translations[row];
+    }
+
+    /**
+     * 生成单个词条对象，用于逐条调用接口等少量场景
+     */
+    public TranslationDto toDto(int row) {
+        TranslationDto item = new TranslationDto();
+        item.setId(ids[row]);
+        item.setKey(getKey(row));
+        item.setOriginal(originals[row]);
+        item.setTranslation(translations[row]);
+        item.setStage(getStage(row));
+        item.setContext(contexts[row]);
+        return item;
+    }
+
+    /**
+     * @return 全部词条对象
+     */
+    public List<TranslationDto> toList() {
+        List<TranslationDto> list = new ArrayList<>(size);
+        for (int row = 0; row < size; row++) {
+            list.add(toDto(row));
+        }
+        return list;
+    }
+
+    /**
+     * 相同的原文和译文共用一个字符串
+     */
+    private String intern(String value) {
+        if (value == null) {
+            return null;
+        }
+
+        int mask = pool.length - 1;
+        int i = mix(value.hashCode()) & mask;
+        for (String s = pool[i]; s != null; s = pool[i]) {
+            if (s.equals(value)) {
+                return s;
+            }
+            i = (i + 1) & mask;
+        }
+
+        pool[i] = value;
+        if (++poolSize * 2 > pool.length) {
+            String[] old = pool;
+            pool = new String[old.length * 2];
+            for (String s : old) {
+                if (s != null) {
+                    int j = mix(s.hashCode()) & (pool.length - 1);
+                    while (pool[j] != null) {
+                        j = (j + 1) & (pool.length - 1);
+                    }
+                    pool[j] = s;
+                }
+            }
+        }
+        return value;
+    }
+
+    private static int mix(int h) {
+        return h ^ (h >>> 16);
+    }
+}
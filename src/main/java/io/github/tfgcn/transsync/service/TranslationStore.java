@@ -0,0 +1,361 @@
+package io.github.tfgcn.transsync.service;
+
+import io.github.tfgcn.transsync.paratranz.model.files.TranslationDto;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static io.github.tfgcn.transsync.Constants.*;
+
+/**
+ * desc: 本地译文库
+ * <p>为每个远程文件保存一份词条副本（id、key、原文、译文、状态、上下文），获取或上传译文后随时更新，
+ * 远程文件没有变化时可以直接使用本地副本，不必重新请求。</p>
+ * <p>每个远程文件对应 workspace/.transsync/strings/&lt;fileId&gt;.bin，格式为追加写入的二进制日志：</p>
+ * <pre>
+ * file     := MAGIC VERSION SNAPSHOT PATCH*
+ * SNAPSHOT := 1 fingerprint count (id key original translation stage context)*
+ * PATCH    := 2 count (id translation stage)*
+ * </pre>
+ * <p>字符串以 4 字节长度加 UTF-8 内容保存，长度为 -1 表示 null；补丁中的译文为 null 表示保持不变。
+ * 文件末尾不完整的补丁来自中断的写入，读取时直接丢弃。补丁过多或有不完整的补丁时，读取后重写为单个快照。</p>
+ *
+ * @author yanmaoyuan
+ */
+@Slf4j
+public class TranslationStore {
+
+    private static final int MAGIC = 0x54535331;// "TSS1"
+    private static final int VERSION = 1;
+    private static final byte RECORD_SNAPSHOT = 1;
+    private static final byte RECORD_PATCH = 2;
+    private static final int BUFFER_SIZE = 64 * 1024;
+    /**
+     * 补丁中的词条数超过快照的一半时重写文件
+     */
+    private static final int COMPACT_RATIO = 2;
+
+    private final Path dir;
+    private final Map<Integer, Object> locks = new ConcurrentHashMap<>();
+
+    private TranslationStore(Path dir) {
+        this.dir = dir;
+    }
+
+    /**
+     * 打开工作空间中的译文库
+     *
+     * @param workspace 工作空间
+     * @return 译文库
+     */
+    public static TranslationStore open(Path workspace) {
+        return new TranslationStore(workspace.resolve(WORKSPACE_DATA_DIR).resolve(TRANSLATION_STORE_DIR));
+    }
+
+    /**
+     * 读取远程文件的本地副本，远程文件已变化时返回 null
+     *
+     * @param fileId 远程文件ID
+     * @param fingerprint 远程文件当前的元数据指纹
+     * @return 词条，不存在或已过期时返回 null
+     */
+    public TranslationSet load(Integer fileId, String fingerprint) throws IOException {
+        Snapshot snapshot = read(fileId, fingerprint);
+        return snapshot == null ? null : snapshot.items;
+    }
+
+    /**
+     * 保存从远程获取的完整词条列表，替换已有的副本
+     *
+     * @param fileId 远程文件ID
+     * @param fingerprint 获取时远程文件的元数据指纹
+     * @param items 词条
+     */
+    public void save(Integer fileId, String fingerprint, TranslationSet items) throws IOException {
+        try (SnapshotWriter writer = create(fileId, fingerprint)) {
+            for (int row = 0; row < items.size(); row++) {
+                writer.add(items.getId(row), items.getKey(row), items.getOriginal(row),
+                        items.getTranslation(row), items.getStage(row), items.getContext(row));
+            }
+            writer.commit();
+        }
+    }
+
+    /**
+     * 逐个写入从远程获取的词条，{@link SnapshotWriter#commit()} 后替换已有的副本。
+     * <p>词条先写入临时文件，写入期间不占用锁，也不需要保留词条列表。</p>
+     *
+     * @param fileId 远程文件ID
+     * @param fingerprint 获取时远程文件的元数据指纹
+     * @return 写入器，未提交就关闭时放弃写入的内容
+     */
+    public SnapshotWriter create(Integer fileId, String fingerprint) throws IOException {
+        Files.createDirectories(dir);
+        return new SnapshotWriter(fileId, fingerprint);
+    }
+
+    /**
+     * 追加词条的修改，例如上传译文后的新译文和状态
+     *
+     * @param fileId 远程文件ID
+     * @param updates 修改后的词条，只使用 id、translation、stage；translation 为 null 表示不变
+     */
+    public void patch(Integer fileId, List<TranslationDto> updates) throws IOException {
+        if (updates.isEmpty()) {
+            return;
+        }
+        synchronized (lock(fileId)) {
+            Path file = getFile(fileId);
+            if (!Files.isRegularFile(file)) {
+                // 没有快照时补丁无处可用
+                return;
+            }
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+                    Files.newOutputStream(file, StandardOpenOption.APPEND), BUFFER_SIZE))) {
+                out.writeByte(RECORD_PATCH);
+                out.writeInt(updates.size());
+                for (TranslationDto item : updates) {
+                    out.writeInt(item.getId());
+                    writeString(out, item.getTranslation());
+                    out.writeInt(item.getStage() == null ? 0 : item.getStage());
+                }
+            }
+        }
+    }
+
+    /**
+     * 删除远程文件的本地副本
+     *
+     * @param fileId 远程文件ID
+     */
+    public void remove(Integer fileId) throws IOException {
+        synchronized (lock(fileId)) {
+            Files.deleteIfExists(getFile(fileId));
+        }
+    }
+
+    private Snapshot read(Integer fileId, String expectedFingerprint) throws IOException {
+        synchronized (lock(fileId)) {
+            Path file = getFile(fileId);
+            if (!Files.isRegularFile(file)) {
+                return null;
+            }
+
+            Snapshot snapshot;
+            try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file), BUFFER_SIZE))) {
+                snapshot = readSnapshot(in, expectedFingerprint);
+                if (snapshot != null) {
+                    readPatches(in, snapshot);
+                }
+            } catch (EOFException e) {
+                log.warn("Ignore broken translation store: {}", file);
+                return null;
+            }
+
+            if (snapshot != null && (snapshot.truncated || snapshot.patched * COMPACT_RATIO > snapshot.items.size())) {
+                save(fileId, snapshot.fingerprint, snapshot.items);
+                log.debug("Translation store compacted: {}", file);
+            }
+            return snapshot;
+        }
+    }
+
+    private static Snapshot readSnapshot(DataInputStream in, String expectedFingerprint) throws IOException {
+        if (in.readInt() != MAGIC || in.readInt() != VERSION || in.readByte() != RECORD_SNAPSHOT) {
+            return null;
+        }
+
+        String fingerprint = readString(in);
+        if (!expectedFingerprint.equals(fingerprint)) {
+            return null;
+        }
+
+        int count = in.readInt();
+        TranslationSet items = new TranslationSet(count);
+        for (int i = 0; i < count; i++) {
+            int id = in.readInt();
+            String key = readString(in);
+            String original = readString(in);
+            String translation = readString(in);
+            int stage = in.readInt();
+            items.add(id, key, original, translation, stage, readString(in));
+        }
+        return new Snapshot(fingerprint, items);
+    }
+
+    private static void readPatches(DataInputStream in, Snapshot snapshot) throws IOException {
+        Map<Integer, Integer> rowById = null;
+        while (true) {
+            int type = in.read();
+            if (type != RECORD_PATCH) {
+                // 文件结束
+                return;
+            }
+            if (rowById == null) {
+                rowById = new HashMap<>(snapshot.items.size() * 2);
+                for (int row = 0; row < snapshot.items.size(); row++) {
+                    rowById.put(snapshot.items.getId(row), row);
+                }
+            }
+
+            // 先完整读取补丁再应用，末尾不完整的补丁整体丢弃
+            int count;
+            int[] ids;
+            String[] translations;
+            int[] stages;
+            try {
+                count = in.readInt();
+                ids = new int[count];
+                translations = new String[count];
+                stages = new int[count];
+                for (int i = 0; i < count; i++) {
+                    ids[i] = in.readInt();
+                    translations[i] = readString(in);
+                    stages[i] = in.readInt();
+                }
+            } catch (EOFException e) {
+                // 之后追加的补丁无法定位，需要重写文件
+                snapshot.truncated = true;
+                return;
+            }
+
+            for (int i = 0; i < count; i++) {
+                Integer row = rowById.get(ids[i]);
+                if (row != null) {
+                    if (translations[i] != null) {
+                        snapshot.items.setTranslation(row, translations[i]);
+                    }
+                    snapshot.items.setStage(row, stages[i]);
+                }
+            }
+            snapshot.patched += count;
+        }
+    }
+
+    private Path getFile(Integer fileId) {
+        return dir.resolve(fileId + ".bin");
+    }
+
+    private Object lock(Integer fileId) {
+        return locks.computeIfAbsent(fileId, id -> new Object());
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        int length = in.readInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * 快照写入器。词条数写在快照开头，写入时先占位，提交时再补上。
+     */
+    public final class SnapshotWriter implements Closeable {
+        private final Integer fileId;
+        private final Path temp;
+        private final FileChannel channel;
+        private final DataOutputStream out;
+        private final long countPosition;// 词条数在文件中的位置
+        private int count;
+        private boolean committed;
+
+        private SnapshotWriter(Integer fileId, String fingerprint) throws IOException {
+            this.fileId = fileId;
+            this.temp = Files.createTempFile(dir, fileId + "-", ".tmp");
+            this.channel = FileChannel.open(temp, StandardOpenOption.WRITE);
+            this.out = new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(channel), BUFFER_SIZE));
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeByte(RECORD_SNAPSHOT);
+            writeString(out, fingerprint);
+            countPosition = out.size();
+            out.writeInt(0);
+        }
+
+        /**
+         * 写入一个词条
+         */
+        public void add(TranslationDto item) throws IOException {
+            add(item.getId(), item.getKey(), item.getOriginal(), item.getTranslation(), item.getStage(), item.getContext());
+        }
+
+        /**
+         * 写入一个词条
+         */
+        public void add(int id, String key, String original, String translation, Integer stage, String context) throws IOException {
+            out.writeInt(id);
+            writeString(out, key);
+            writeString(out, original);
+            writeString(out, translation);
+            out.writeInt(stage == null ? 0 : stage);
+            writeString(out, context);
+            count++;
+        }
+
+        /**
+         * 补上词条数，替换已有的副本
+         */
+        public void commit() throws IOException {
+            out.flush();
+            ByteBuffer buffer = ByteBuffer.allocate(Integer.BYTES).putInt(count);
+            buffer.flip();
+            channel.write(buffer, countPosition);
+            out.close();
+            synchronized (lock(fileId)) {
+                Files.move(temp, getFile(fileId), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            }
+            committed = true;
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (!committed) {
+                out.close();
+                Files.deleteIfExists(temp);
+            }
+        }
+    }
+
+    private static class Snapshot {
+        private final String fingerprint;
+        private final TranslationSet items;
+        private int patched;// 已应用的补丁词条数
+        private boolean truncated;// 末尾有不完整的补丁
+
+        private Snapshot(String fingerprint, TranslationSet items) {
+            this.fingerprint = fingerprint;
+            this.items = items;
+        }
+    }
+}
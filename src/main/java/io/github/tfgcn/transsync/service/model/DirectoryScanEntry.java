@@ -0,0 +1,21 @@
+package io.github.tfgcn.transsync.service.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * desc: 目录上次扫描时的内容
+ *
+ * @author yanmaoyuan
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DirectoryScanEntry {
+    private long mtime;// 目录最后修改时间，毫秒
+    private List<String> dirs;// 需要继续遍历的子目录名称
+    private List<String> files;// 匹配规则的文件名称
+}
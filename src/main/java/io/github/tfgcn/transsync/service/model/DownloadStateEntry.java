@@ -0,0 +1,19 @@
+package io.github.tfgcn.transsync.service.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * desc: 译文文件上次下载成功时的状态
+ *
+ * @author yanmaoyuan
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DownloadStateEntry {
+    private String remote;// 远程文件元数据指纹
+    private String source;// 原文文件MD5
+    private String local;// 下载后本地译文文件MD5
+}
@@ -3,13 +3,22 @@ package io.github.tfgcn.transsync.service.model;
 import lombok.Data;
 
 /**
- * desc:
+ * desc: 单个译文文件的下载结果
  *
  * @author yanmaoyuan
  */
 @Data
 public class DownloadTranslationResult {
+    public static final String STATUS_CREATED = "create";
+    public static final String STATUS_UPDATED = "update";
+    public static final String STATUS_NOT_MODIFIED = "skip";
+    public static final String STATUS_NOT_TRANSLATED = "untranslated";
+    public static final String STATUS_FAILED = "failed";
+    public static final String STATUS_CANCELED = "canceled";
+
     private String fileName;
-    private String status;// create, update, skip
+    private String status;// create, update, skip, untranslated, failed, canceled
     private int bytes;// 字节数
-}
\ No newline at end of file
+    private String md5;// 本地译文文件MD5
+    private String message;// 失败原因
+}
@@ -18,6 +18,36 @@ public class FileDownloadRequest extends FilesDto {
     private String sourceFilePath;// relative path of workspace
     private String translationFilePath;// relative path of workspace
 
+    /**
+     * 根据远程文件和对应的原文文件创建下载请求
+     */
+    public static FileDownloadRequest of(FilesDto file, FileScanResult sourceFile) {
+        FileDownloadRequest request = new FileDownloadRequest();
+        request.setSourceFilePath(sourceFile.getSourceFilePath());
+        request.setTranslationFilePath(sourceFile.getTranslationFilePath());
+
+        request.setId(file.getId());
+        request.setName(file.getName());
+        request.setProject(file.getProject());
+        request.setFormat(file.getFormat());
+        request.setTotal(file.getTotal());
+        request.setTranslated(file.getTranslated());
+        request.setDisputed(file.getDisputed());
+        request.setChecked(file.getChecked());
+        request.setReviewed(file.getReviewed());
+        request.setHidden(file.getHidden());
+        request.setWords(file.getWords());
+        request.setHash(file.getHash());
+        request.setFolder(file.getFolder());
+        request.setProgress(file.getProgress());
+        request.setExtra(file.getExtra());
+        request.setLocked(file.getLocked());
+        request.setModifiedAt(file.getModifiedAt());
+        request.setCreatedAt(file.getCreatedAt());
+        request.setUpdatedAt(file.getUpdatedAt());
+        return request;
+    }
+
     public String getSourceFileFolder() {
         if (sourceFilePath == null) {
             return "";
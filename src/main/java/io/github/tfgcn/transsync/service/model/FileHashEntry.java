@@ -0,0 +1,19 @@
+package io.github.tfgcn.transsync.service.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * desc: 文件摘要缓存条目
+ *
+ * @author yanmaoyuan
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class FileHashEntry {
+    private long size;// 文件大小
+    private long mtime;// 最后修改时间，毫秒
+    private String md5;// 文件内容MD5
+}
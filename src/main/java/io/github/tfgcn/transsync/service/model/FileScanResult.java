@@ -12,6 +12,7 @@ import lombok.Data;
 public class FileScanResult {
     private String sourceFilePath;// relative path of workspace
     private String translationFilePath;// relative path of workspace
+    private String md5;// 源文件内容MD5，仅当扫描请求要求计算摘要时有值
 
     public String getSourceFileFolder() {
         if (sourceFilePath == null) {
@@ -10,6 +10,7 @@ import java.util.List;
 @Data
 public class FileScanRule {
     private Boolean enabled;
+    private String archivePattern;// 压缩包匹配规则，例如 mods/*.jar。设置后 sourcePattern 匹配压缩包中的条目
     private String sourcePattern;
     private String translationPattern;
     private String srcLang;
@@ -20,6 +21,7 @@ public class FileScanRule {
     
     public FileScanRule(FileScanRule other) {
         this.enabled = other.enabled;
+        this.archivePattern = other.archivePattern;
         this.sourcePattern = other.sourcePattern;
         this.translationPattern = other.translationPattern;
         this.srcLang = other.srcLang;
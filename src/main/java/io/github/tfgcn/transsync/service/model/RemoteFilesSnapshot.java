@@ -0,0 +1,19 @@
+package io.github.tfgcn.transsync.service.model;
+
+import io.github.tfgcn.transsync.paratranz.model.files.FilesDto;
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * desc: 远程文件列表快照
+ *
+ * @author yanmaoyuan
+ */
+@Data
+public class RemoteFilesSnapshot {
+    private Integer projectId;// 项目ID
+    private long fetchedAt;// 获取时间，毫秒
+    private String projectStamp;// 获取时的项目修改标记
+    private List<FilesDto> files;// 文件列表
+}
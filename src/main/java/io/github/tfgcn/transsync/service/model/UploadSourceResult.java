@@ -0,0 +1,21 @@
+package io.github.tfgcn.transsync.service.model;
+
+import lombok.Data;
+
+/**
+ * desc: 单个原文文件的上传结果
+ *
+ * @author yanmaoyuan
+ */
+@Data
+public class UploadSourceResult {
+    public static final String STATUS_NEW = "new";
+    public static final String STATUS_UPDATED = "update";
+    public static final String STATUS_NOT_MODIFIED = "skip";
+    public static final String STATUS_FAILED = "failed";
+
+    private String sourceFilePath;// relative path of workspace
+    private String translationFilePath;// relative path of workspace
+    private String status;// new, update, skip, failed
+    private String message;// 失败原因
+}
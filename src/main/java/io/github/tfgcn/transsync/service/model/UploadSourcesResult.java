@@ -0,0 +1,46 @@
+package io.github.tfgcn.transsync.service.model;
+
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * desc: 批量上传原文的汇总结果
+ *
+ * @author yanmaoyuan
+ */
+@Data
+public class UploadSourcesResult {
+    private final List<UploadSourceResult> items = new ArrayList<>();
+
+    public void add(UploadSourceResult item) {
+        items.add(item);
+    }
+
+    public int count(String status) {
+        int count = 0;
+        for (UploadSourceResult item : items) {
+            if (status.equals(item.getStatus())) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    public int getNewCount() {
+        return count(UploadSourceResult.STATUS_NEW);
+    }
+
+    public int getUpdatedCount() {
+        return count(UploadSourceResult.STATUS_UPDATED);
+    }
+
+    public int getNotModifiedCount() {
+        return count(UploadSourceResult.STATUS_NOT_MODIFIED);
+    }
+
+    public int getFailedCount() {
+        return count(UploadSourceResult.STATUS_FAILED);
+    }
+}
@@ -0,0 +1,75 @@
+package io.github.tfgcn.transsync.utils;
+
+import org.apache.commons.codec.binary.Hex;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * desc: 基于 FileChannel 的文件摘要工具
+ * <p>使用线程内复用的直接缓冲区读取，避免每次计算都分配新的缓冲区。</p>
+ * <p>不使用内存映射：映射在垃圾回收前不会释放，Windows 上期间无法替换或删除文件，而译文文件计算摘要后可能立即被替换。</p>
+ *
+ * @author yanmaoyuan
+ */
+public final class FileDigests {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private static final ThreadLocal<ByteBuffer> BUFFER = ThreadLocal.withInitial(() -> ByteBuffer.allocateDirect(BUFFER_SIZE));
+    private static final ThreadLocal<MessageDigest> MD5 = ThreadLocal.withInitial(FileDigests::newMd5);
+
+    private FileDigests() {}
+
+    /**
+     * 计算文件内容的MD5
+     *
+     * @param path 文件路径
+     * @return 小写十六进制的MD5
+     */
+    public static String md5Hex(Path path) throws IOException {
+        MessageDigest digest = MD5.get();
+        digest.reset();
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            ByteBuffer buffer = BUFFER.get();
+            buffer.clear();
+            while (channel.read(buffer) != -1) {
+                buffer.flip();
+                digest.update(buffer);
+                buffer.clear();
+            }
+        }
+        return Hex.encodeHexString(digest.digest());
+    }
+
+    /**
+     * 计算输入流内容的MD5，读取到流结束，不关闭输入流
+     *
+     * @param in 输入流，例如压缩包中的条目
+     * @return 小写十六进制的MD5
+     */
+    public static String md5Hex(InputStream in) throws IOException {
+        MessageDigest digest = MD5.get();
+        digest.reset();
+        byte[] buffer = new byte[8192];
+        int n;
+        while ((n = in.read(buffer)) != -1) {
+            digest.update(buffer, 0, n);
+        }
+        return Hex.encodeHexString(digest.digest());
+    }
+
+    public static MessageDigest newMd5() {
+        try {
+            return MessageDigest.getInstance("MD5");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("MD5 not supported", e);
+        }
+    }
+}
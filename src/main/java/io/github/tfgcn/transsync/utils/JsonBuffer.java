@@ -0,0 +1,124 @@
+package io.github.tfgcn.transsync.utils;
+
+import org.apache.commons.codec.binary.Hex;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+
+/**
+ * desc: JSON 序列化缓冲区
+ * <p>对象只序列化一次，写入缓冲区的同时计算MD5，之后可直接与磁盘文件的摘要比较，并原子地写入文件。</p>
+ * <p>缓冲区在线程内复用，{@link #serialize(Object)} 和 {@link #write(Content)} 返回的实例在同一线程下一次调用前有效。</p>
+ *
+ * @author yanmaoyuan
+ */
+public final class JsonBuffer extends ByteArrayOutputStream {
+
+    private static final int INITIAL_CAPACITY = 64 * 1024;
+    /**
+     * 超过此容量的缓冲区用完后不再保留，避免个别大文件长期占用内存
+     */
+    private static final int MAX_RETAINED_CAPACITY = 8 * 1024 * 1024;
+
+    private static final ThreadLocal<JsonBuffer> LOCAL = ThreadLocal.withInitial(JsonBuffer::new);
+
+    private final MessageDigest digest = FileDigests.newMd5();
+    private String md5;
+
+    private JsonBuffer() {
+        super(INITIAL_CAPACITY);
+    }
+
+    /**
+     * 使用 {@link JsonUtils#GSON} 将对象序列化到当前线程的缓冲区
+     *
+     * @param obj 需要序列化的对象
+     * @return 当前线程的缓冲区
+     */
+    public static JsonBuffer serialize(Object obj) throws IOException {
+        return write(writer -> JsonUtils.GSON.toJson(obj, writer));
+    }
+
+    /**
+     * 将内容写入当前线程的缓冲区
+     *
+     * @param content 写入内容的方法
+     * @return 当前线程的缓冲区
+     */
+    public static JsonBuffer write(Content content) throws IOException {
+        JsonBuffer buffer = LOCAL.get();
+        buffer.clear();
+
+        Writer writer = new OutputStreamWriter(buffer, StandardCharsets.UTF_8);
+        content.writeTo(writer);
+        writer.flush();
+        return buffer;
+    }
+
+    /**
+     * 向缓冲区写入内容
+     */
+    @FunctionalInterface
+    public interface Content {
+        void writeTo(Writer writer) throws IOException;
+    }
+
+    private void clear() {
+        if (buf.length > MAX_RETAINED_CAPACITY) {
+            buf = new byte[INITIAL_CAPACITY];
+        }
+        reset();
+        digest.reset();
+        md5 = null;
+    }
+
+    @Override
+    public synchronized void write(int b) {
+        super.write(b);
+        digest.update((byte) b);
+    }
+
+    @Override
+    public synchronized void write(byte[] b, int off, int len) {
+        super.write(b, off, len);
+        digest.update(b, off, len);
+    }
+
+    /**
+     * @return 缓冲区内容的MD5，小写十六进制
+     */
+    public String md5Hex() {
+        if (md5 == null) {
+            md5 = Hex.encodeHexString(digest.digest());
+        }
+        return md5;
+    }
+
+    /**
+     * 将缓冲区内容写入文件。先写入同目录下的临时文件，再重命名覆盖目标文件，中断时不会留下写了一半的文件。
+     *
+     * @param file 目标文件
+     */
+    public void writeTo(File file) throws IOException {
+        Path target = file.toPath();
+        Path temp = target.resolveSibling(target.getFileName() + ".tmp");
+        try (OutputStream out = Files.newOutputStream(temp)) {
+            writeTo(out);
+        }
+        try {
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+}
@@ -1,6 +1,7 @@
 package io.github.tfgcn.transsync.utils;
 
 import com.google.gson.*;
+import io.github.tfgcn.transsync.paratranz.ParatranzTypeAdapterFactory;
 
 import java.io.*;
 import java.lang.reflect.Type;
@@ -13,6 +14,11 @@ import java.nio.charset.StandardCharsets;
  */
 public final class JsonUtils {
 
+    /**
+     * ISO-8601 格式，保留毫秒，与 paratranz 接口返回的格式一致
+     */
+    public static final String DATE_FORMAT = "yyyy-MM-dd'T'HH:mm:ss.SSSXXX";
+
     public static final Gson GSON;
 
     static {
@@ -21,8 +27,10 @@ public final class JsonUtils {
                         .withIndent("    ")
                         .withNewline(System.lineSeparator()))
                 .setObjectToNumberStrategy(ToNumberPolicy.LAZILY_PARSED_NUMBER)
+                .setDateFormat(DATE_FORMAT)
                 .serializeNulls()
                 .disableHtmlEscaping()
+                .registerTypeAdapterFactory(new ParatranzTypeAdapterFactory())
                 .create();
     }
 
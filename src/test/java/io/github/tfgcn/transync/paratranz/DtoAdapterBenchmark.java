@@ -0,0 +1,102 @@
+package io.github.tfgcn.transync.paratranz;
+
+import com.google.gson.Gson;
+import com.google.gson.reflect.TypeToken;
+import io.github.tfgcn.transsync.paratranz.ParatranzApiFactory;
+import io.github.tfgcn.transsync.paratranz.model.files.FilesDto;
+import io.github.tfgcn.transsync.paratranz.model.files.TranslationDto;
+
+import java.io.StringReader;
+import java.lang.management.ManagementFactory;
+import java.lang.reflect.Type;
+import java.util.List;
+
+/**
+ * desc: 比较反射方式和 {@link io.github.tfgcn.transsync.paratranz.ParatranzTypeAdapterFactory} 解析接口响应的速度和内存分配
+ * <p>不属于单元测试，需要手动运行 main 方法。</p>
+ *
+ * @author yanmaoyuan
+ */
+public class DtoAdapterBenchmark {
+
+    private static final int TRANSLATIONS = 20000;// 一个大文件的词条数
+    private static final int FILES = 2000;
+    private static final int ROUNDS = 50;
+
+    private static final com.sun.management.ThreadMXBean THREADS = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    public static void main(String[] args) {
+        Gson reflective = new Gson();
+        Gson adapted = ParatranzApiFactory.GSON;
+
+        String translations = buildTranslations();
+        String files = buildFiles();
+        Type translationsType = new TypeToken<List<TranslationDto>>() {}.getType();
+        Type filesType = new TypeToken<List<FilesDto>>() {}.getType();
+        System.out.printf("translations: %d chars, files: %d chars%n", translations.length(), files.length());
+
+        measure("translations, reflective", () -> reflective.<List<?>>fromJson(new StringReader(translations), translationsType).size());
+        measure("translations, adapter", () -> adapted.<List<?>>fromJson(new StringReader(translations), translationsType).size());
+        measure("files, reflective", () -> reflective.<List<?>>fromJson(new StringReader(files), filesType).size());
+        measure("files, adapter", () -> adapted.<List<?>>fromJson(new StringReader(files), filesType).size());
+
+        List<TranslationDto> items = adapted.fromJson(translations, translationsType);
+        measure("write, reflective", () -> reflective.toJson(items, translationsType).length());
+        measure("write, adapter", () -> adapted.toJson(items, translationsType).length());
+    }
+
+    private static String buildTranslations() {
+        StringBuilder sb = new StringBuilder("[");
+        for (int i = 0; i < TRANSLATIONS; i++) {
+            if (i > 0) {
+                sb.append(',');
+            }
+            sb.append("{\"id\":").append(100000 + i)
+                    .append(",\"key\":\"quests->").append(i).append("->title\"")
+                    .append(",\"original\":\"Quest title ").append(i).append("\"")
+                    .append(",\"translation\":\"任务标题 ").append(i).append("\"")
+                    .append(",\"stage\":").append(i % 3)
+                    .append(",\"context\":null}");
+        }
+        return sb.append(']').toString();
+    }
+
+    private static String buildFiles() {
+        StringBuilder sb = new StringBuilder("[");
+        for (int i = 0; i < FILES; i++) {
+            if (i > 0) {
+                sb.append(',');
+            }
+            sb.append("{\"id\":").append(i)
+                    .append(",\"createdAt\":\"2024-03-01T08:00:00.000Z\",\"updatedAt\":\"2024-03-02T08:00:00.000Z\",\"modifiedAt\":\"2024-03-02T08:00:00.000Z\"")
+                    .append(",\"name\":\"kubejs/assets/tfg/lang/en_us_").append(i).append(".json\"")
+                    .append(",\"project\":1,\"format\":\"json\",\"total\":100,\"translated\":50,\"disputed\":0,\"checked\":0")
+                    .append(",\"reviewed\":0,\"hidden\":0,\"locked\":0,\"words\":300,\"hash\":\"d41d8cd98f00b204e9800998ecf8427e\"")
+                    .append(",\"folder\":\"kubejs/assets/tfg/lang\",\"progress\":{\"translate\":0.5,\"review\":0,\"check\":0},\"extra\":null}");
+        }
+        return sb.append(']').toString();
+    }
+
+    private static void measure(String name, Task task) {
+        // 预热
+        for (int i = 0; i < ROUNDS; i++) {
+            task.run();
+        }
+
+        long threadId = Thread.currentThread().getId();
+        long bytes = THREADS.getThreadAllocatedBytes(threadId);
+        long start = System.nanoTime();
+        int result = 0;
+        for (int i = 0; i < ROUNDS; i++) {
+            result += task.run();
+        }
+        long elapsed = System.nanoTime() - start;
+        bytes = THREADS.getThreadAllocatedBytes(threadId) - bytes;
+
+        System.out.printf("%-26s %,12d bytes/op %8.2f ms/op (%d)%n", name, bytes / ROUNDS, elapsed / 1e6 / ROUNDS, result);
+    }
+
+    private interface Task {
+        int run();
+    }
+}
@@ -0,0 +1,71 @@
+package io.github.tfgcn.transync.paratranz;
+
+import com.google.gson.FormattingStyle;
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.ToNumberPolicy;
+import com.google.gson.reflect.TypeToken;
+import io.github.tfgcn.transsync.paratranz.ParatranzApiFactory;
+import io.github.tfgcn.transsync.paratranz.model.files.FilesDto;
+import io.github.tfgcn.transsync.paratranz.model.files.TranslationDto;
+import io.github.tfgcn.transsync.paratranz.model.strings.StringsDto;
+import io.github.tfgcn.transsync.utils.JsonUtils;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Type;
+import java.util.List;
+
+/**
+ * desc: 手写的适配器与反射方式的结果一致
+ *
+ * @author yanmaoyuan
+ */
+class ParatranzTypeAdapterFactoryTest {
+
+    static final String TRANSLATIONS = "[{\"id\": 1, \"key\": \"a->b\", \"original\": \"Hello\", \"translation\": \"你好\", \"stage\": 1, \"context\": null, \"unknown\": {\"x\": [1, 2]}},"
+            + " {\"id\": 2, \"key\": \"c\", \"original\": \"<b>&</b>\", \"translation\": \"\", \"stage\": 0}, null]";
+
+    static final String FILES = "[{\"id\": 10, \"createdAt\": \"2024-03-01T08:00:00.000Z\", \"updatedAt\": \"2024-03-02T08:00:00.123+08:00\","
+            + " \"modifiedAt\": null, \"name\": \"kubejs/assets/tfg/lang/en_us.json\", \"project\": 1, \"format\": \"json\","
+            + " \"total\": 100, \"translated\": 50, \"disputed\": 0, \"checked\": 1, \"reviewed\": 2, \"hidden\": 0, \"locked\": 0,"
+            + " \"words\": 300, \"hash\": \"abc\", \"folder\": \"kubejs\", \"progress\": {\"translate\": 0.5, \"review\": 0, \"check\": 0.01},"
+            + " \"extra\": {\"n\": 1, \"s\": \"x\", \"l\": [true, null]}, \"more\": 1}]";
+
+    static final String STRINGS = "[{\"id\": 12345678901, \"createdAt\": \"2024-03-01T08:00:00.000Z\", \"key\": \"k\", \"original\": \"o\","
+            + " \"translation\": \"t\", \"file\": {\"id\": 10, \"name\": \"a.json\", \"project\": 1}, \"stage\": 1, \"project\": 1, \"uid\": 7,"
+            + " \"extra\": {\"a\": 1.5}, \"context\": \"c\", \"words\": 1, \"version\": 2, \"user\": {\"id\": 7, \"username\": \"u\"},"
+            + " \"comments\": [], \"history\": null, \"fileId\": 10}]";
+
+    @Test
+    void sameAsReflectionWithJsonUtilsConfig() {
+        Gson reflective = new GsonBuilder()
+                .setFormattingStyle(FormattingStyle.PRETTY
+                        .withIndent("    ")
+                        .withNewline(System.lineSeparator()))
+                .setObjectToNumberStrategy(ToNumberPolicy.LAZILY_PARSED_NUMBER)
+                .setDateFormat(JsonUtils.DATE_FORMAT)
+                .serializeNulls()
+                .disableHtmlEscaping()
+                .create();
+        assertSame(reflective, JsonUtils.GSON);
+    }
+
+    @Test
+    void sameAsReflectionWithApiConfig() {
+        assertSame(new Gson(), ParatranzApiFactory.GSON);
+    }
+
+    private void assertSame(Gson reflective, Gson adapted) {
+        assertSame(reflective, adapted, TRANSLATIONS, new TypeToken<List<TranslationDto>>() {}.getType());
+        assertSame(reflective, adapted, FILES, new TypeToken<List<FilesDto>>() {}.getType());
+        assertSame(reflective, adapted, STRINGS, new TypeToken<List<StringsDto>>() {}.getType());
+    }
+
+    private void assertSame(Gson reflective, Gson adapted, String json, Type type) {
+        Object expected = reflective.fromJson(json, type);
+        Object actual = adapted.fromJson(json, type);
+        Assertions.assertEquals(expected, actual);
+        Assertions.assertEquals(reflective.toJson(expected, type), adapted.toJson(actual, type));
+    }
+}
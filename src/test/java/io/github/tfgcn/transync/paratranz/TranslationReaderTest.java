@@ -0,0 +1,46 @@
+package io.github.tfgcn.transync.paratranz;
+
+import com.google.gson.reflect.TypeToken;
+import io.github.tfgcn.transsync.paratranz.ParatranzApiFactory;
+import io.github.tfgcn.transsync.paratranz.TranslationReader;
+import io.github.tfgcn.transsync.paratranz.model.files.TranslationDto;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * desc: 逐个读取词条测试
+ *
+ * @author yanmaoyuan
+ */
+class TranslationReaderTest {
+
+    @Test
+    void testSameAsList() throws IOException {
+        String json = ParatranzTypeAdapterFactoryTest.TRANSLATIONS;
+        List<TranslationDto> expected = ParatranzApiFactory.GSON.fromJson(json, new TypeToken<List<TranslationDto>>() {}.getType());
+        expected.removeIf(item -> item == null);
+
+        Assertions.assertEquals(expected, readAll(json));
+    }
+
+    @Test
+    void testEmpty() throws IOException {
+        Assertions.assertTrue(readAll("null").isEmpty());
+        Assertions.assertTrue(readAll("[]").isEmpty());
+    }
+
+    private static List<TranslationDto> readAll(String json) throws IOException {
+        List<TranslationDto> items = new ArrayList<>();
+        try (TranslationReader reader = new TranslationReader(new StringReader(json))) {
+            while (reader.hasNext()) {
+                items.add(reader.next());
+            }
+        }
+        return items;
+    }
+}
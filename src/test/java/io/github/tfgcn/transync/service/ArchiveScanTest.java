@@ -0,0 +1,113 @@
+package io.github.tfgcn.transync.service;
+
+import io.github.tfgcn.transsync.service.FileScanService;
+import io.github.tfgcn.transsync.service.HashManifest;
+import io.github.tfgcn.transsync.service.SourceFile;
+import io.github.tfgcn.transsync.service.model.FileScanRequest;
+import io.github.tfgcn.transsync.service.model.FileScanResult;
+import org.apache.commons.codec.digest.DigestUtils;
+import org.apache.commons.io.IOUtils;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * desc: 压缩包规则测试
+ *
+ * @author yanmaoyuan
+ */
+class ArchiveScanTest {
+
+    private static final String TFC_LANG = "{\"item.tfc.stone\":\"Stone\"}";
+    private static final String AE2_LANG = "{\"item.ae2.cable\":\"Cable\"}";
+
+    @TempDir
+    Path workspace;
+
+    @Test
+    void testScanEntriesInArchives() throws IOException {
+        writeJar("mods/tfc.jar", "assets/tfc/lang/en_us.json", TFC_LANG, "assets/tfc/lang/zh_cn.json", "{}",
+                "assets/tfc/textures/stone.png", "");
+        writeJar("mods/ae2.jar", "assets/ae2/lang/en_us.json", AE2_LANG, "assets/ae2/lang/en_us.json.bak", "{}");
+        Files.write(workspace.resolve("mods/readme.txt"), "not an archive".getBytes(StandardCharsets.UTF_8));
+
+        FileScanRequest request = new FileScanRequest();
+        request.setWorkspace(workspace.toString());
+        request.setArchivePattern("mods/*.jar");
+        request.setSourceFilePattern("assets/*/lang/en_us.json");
+        request.setTranslationFilePattern("resourcepacks/cn/%original_path_pre%/%language%.json");
+        request.setSrcLang("en_us");
+        request.setDestLang("zh_cn");
+        request.setDigest(true);
+
+        FileScanService service = new FileScanService();
+        service.setHashManifest(HashManifest.load(workspace.toRealPath()));
+        List<FileScanResult> results = service.scanAndMapFiles(List.of(request));
+
+        Assertions.assertEquals(2, results.size());
+        FileScanResult ae2 = results.get(0);
+        Assertions.assertEquals("mods/ae2.jar!/assets/ae2/lang/en_us.json", ae2.getSourceFilePath());
+        Assertions.assertEquals("resourcepacks/cn/assets/ae2/lang/zh_cn.json", ae2.getTranslationFilePath());
+        Assertions.assertEquals(DigestUtils.md5Hex(AE2_LANG), ae2.getMd5());
+        Assertions.assertEquals("mods/tfc.jar!/assets/tfc/lang/en_us.json", results.get(1).getSourceFilePath());
+        Assertions.assertEquals(DigestUtils.md5Hex(TFC_LANG), results.get(1).getMd5());
+
+        // 直接从压缩包读取，不解压到工作空间
+        SourceFile source = SourceFile.of(workspace, ae2.getSourceFilePath());
+        Assertions.assertEquals("en_us.json", source.getName());
+        Assertions.assertEquals(AE2_LANG.length(), source.size());
+        try (InputStream in = source.open()) {
+            Assertions.assertEquals(AE2_LANG, IOUtils.toString(in, StandardCharsets.UTF_8));
+        }
+        Assertions.assertFalse(Files.exists(workspace.resolve("assets")));
+    }
+
+    @Test
+    void testDigestEntriesOfOneArchive() throws IOException {
+        writeJar("mods/pack.jar", "assets/tfc/lang/en_us.json", TFC_LANG, "assets/ae2/lang/en_us.json", AE2_LANG);
+
+        FileScanRequest request = new FileScanRequest();
+        request.setWorkspace(workspace.toString());
+        request.setArchivePattern("mods/*.jar");
+        request.setSourceFilePattern("assets/*/lang/en_us.json");
+        request.setTranslationFilePattern("resourcepacks/cn/%original_path_pre%/%language%.json");
+        request.setSrcLang("en_us");
+        request.setDestLang("zh_cn");
+        request.setDigest(true);
+
+        // 同一压缩包中的条目从一个 ZipFile 读取
+        List<FileScanResult> results = new FileScanService().scanAndMapFiles(List.of(request));
+        Assertions.assertEquals(2, results.size());
+        Assertions.assertEquals("mods/pack.jar!/assets/ae2/lang/en_us.json", results.get(0).getSourceFilePath());
+        Assertions.assertEquals(DigestUtils.md5Hex(AE2_LANG), results.get(0).getMd5());
+        Assertions.assertEquals("mods/pack.jar!/assets/tfc/lang/en_us.json", results.get(1).getSourceFilePath());
+        Assertions.assertEquals(DigestUtils.md5Hex(TFC_LANG), results.get(1).getMd5());
+
+        SourceFile missing = SourceFile.of(workspace, "mods/pack.jar!/assets/create/lang/en_us.json");
+        Assertions.assertThrows(NoSuchFileException.class, missing::size);
+        Assertions.assertThrows(NoSuchFileException.class, missing::md5Hex);
+    }
+
+    private void writeJar(String name, String... entries) throws IOException {
+        Path jar = workspace.resolve(name);
+        Files.createDirectories(jar.getParent());
+        try (OutputStream out = Files.newOutputStream(jar); ZipOutputStream zip = new ZipOutputStream(out)) {
+            for (int i = 0; i < entries.length; i += 2) {
+                zip.putNextEntry(new ZipEntry(entries[i]));
+                zip.write(entries[i + 1].getBytes(StandardCharsets.UTF_8));
+                zip.closeEntry();
+            }
+        }
+    }
+}
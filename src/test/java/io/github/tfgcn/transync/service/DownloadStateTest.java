@@ -0,0 +1,51 @@
+package io.github.tfgcn.transync.service;
+
+import io.github.tfgcn.transsync.service.DownloadState;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * desc: 译文下载状态测试
+ *
+ * @author yanmaoyuan
+ */
+class DownloadStateTest {
+
+    @TempDir
+    Path workspace;
+
+    @Test
+    void testUnchangedAfterReload() throws IOException {
+        DownloadState state = DownloadState.load(workspace);
+        state.record("zh_cn/a.json", "1:remote", "source", "local");
+        state.save();
+
+        DownloadState reloaded = DownloadState.load(workspace);
+        Assertions.assertTrue(reloaded.isUnchanged("zh_cn/a.json", "1:remote", "source", "local"));
+
+        // 任意一项变化，或本地文件不存在时都需要重新下载
+        Assertions.assertFalse(reloaded.isUnchanged("zh_cn/a.json", "2:remote", "source", "local"));
+        Assertions.assertFalse(reloaded.isUnchanged("zh_cn/a.json", "1:remote", "changed", "local"));
+        Assertions.assertFalse(reloaded.isUnchanged("zh_cn/a.json", "1:remote", "source", "edited"));
+        Assertions.assertFalse(reloaded.isUnchanged("zh_cn/a.json", "1:remote", "source", null));
+        Assertions.assertFalse(reloaded.isUnchanged("zh_cn/b.json", "1:remote", "source", "local"));
+    }
+
+    @Test
+    void testProjectUnchangedAfterReload() throws IOException {
+        DownloadState state = DownloadState.load(workspace);
+        Assertions.assertFalse(state.isProjectUnchanged("15950:1", "digest"));
+
+        state.recordProject("15950:1", "digest");
+        state.save();
+
+        DownloadState reloaded = DownloadState.load(workspace);
+        Assertions.assertTrue(reloaded.isProjectUnchanged("15950:1", "digest"));
+        Assertions.assertFalse(reloaded.isProjectUnchanged("15950:2", "digest"));
+        Assertions.assertFalse(reloaded.isProjectUnchanged("15950:1", "changed"));
+    }
+}
@@ -5,6 +5,7 @@ import io.github.tfgcn.transsync.service.model.FileScanResult;
 import lombok.Builder;
 import lombok.Data;
 import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.codec.digest.DigestUtils;
 import org.apache.commons.io.FileUtils;
 import org.junit.jupiter.api.AfterAll;
 import org.junit.jupiter.api.BeforeAll;
@@ -12,8 +13,11 @@ import org.junit.jupiter.api.Test;
 
 import java.io.File;
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
@@ -271,6 +275,97 @@ class FileScanServiceTest {
     }
 
 
+    @Test
+    void testScanWithDigest() throws IOException {
+        FileScanRequest request = new FileScanRequest();
+        request.setWorkspace(".");
+        request.setSourceFilePattern("test/en_us/**.json");
+        request.setTranslationFilePattern("test/%language%/%original_path%/%original_file_name%");
+        request.setSrcLang(SRC_LANG);
+        request.setDestLang(DEST_LANG);
+        request.setDigest(true);
+
+        FileScanService service = new FileScanService();
+        List<FileScanResult> results = service.scanAndMapFiles(request);
+
+        assertEquals(5, results.size());
+        for (FileScanResult result : results) {
+            // 测试文件均为空文件
+            assertEquals(DigestUtils.md5Hex(new byte[0]), result.getMd5(), result.getSourceFilePath());
+        }
+    }
+
+
+    @Test
+    void testOrderAndIgnores() throws IOException {
+        FileScanRequest request = new FileScanRequest();
+        request.setWorkspace(".");
+        request.setSourceFilePattern("test/**.json");
+        request.setTranslationFilePattern("%original_path_pre%/%language%/%original_path%/%original_file_name%");
+        request.setSrcLang(SRC_LANG);
+        request.setDestLang(DEST_LANG);
+        request.setIgnores(List.of("tfg", "**/Quests/chapter3"));
+
+        FileScanService service = new FileScanService();
+        List<String> paths = service.scanAndMapFiles(request).stream()
+                .map(FileScanResult::getSourceFilePath)
+                .collect(Collectors.toList());
+
+        // 目录内按名称排序，结果与并行遍历的调度无关
+        assertEquals(List.of(
+                PATTERN4_FILE2, PATTERN3_FILE2,
+                PATTERN5_FILE2,
+                PATTERN2_FILE1, PATTERN2_FILE2, PATTERN1_FILE1, PATTERN1_FILE2,
+                PATTERN5_FILE1
+        ), paths);
+    }
+
+
+    @Test
+    void testMultiRuleScan() throws IOException {
+        List<FileScanRequest> requests = List.of(
+                request("test/en_us/**.json", "test/%language%/%original_path%/%original_file_name%"),
+                request("test/**/en_us/*.json", "%original_path_pre%/%language%/%original_file_name%"),
+                request("test/**.json", "%original_path_pre%/%language%/%original_path%/%original_file_name%"),
+                request("missing/**.json", "missing/%language%/%original_file_name%")
+        );
+
+        // 逐条规则扫描后按译文路径去重
+        FileScanService service = new FileScanService();
+        List<String> expected = new ArrayList<>();
+        Set<String> distinct = new HashSet<>();
+        for (FileScanRequest request : requests) {
+            List<FileScanResult> results;
+            try {
+                results = service.scanAndMapFiles(request);
+            } catch (IOException e) {
+                continue;
+            }
+            for (FileScanResult result : results) {
+                if (distinct.add(result.getTranslationFilePath())) {
+                    expected.add(result.getSourceFilePath() + " -> " + result.getTranslationFilePath());
+                }
+            }
+        }
+
+        List<String> actual = service.scanAndMapFiles(requests).stream()
+                .map(result -> result.getSourceFilePath() + " -> " + result.getTranslationFilePath())
+                .collect(Collectors.toList());
+        assertEquals(expected, actual);
+        assertEquals(ALL_TEST_FILES.size(), actual.size());
+    }
+
+    private static FileScanRequest request(String sourcePattern, String translationPattern) {
+        FileScanRequest request = new FileScanRequest();
+        request.setWorkspace(".");
+        request.setSourceFilePattern(sourcePattern);
+        request.setTranslationFilePattern(translationPattern);
+        request.setSrcLang(SRC_LANG);
+        request.setDestLang(DEST_LANG);
+        return request;
+    }
+
+
     // ========================= 辅助方法（不变） =========================
     private void assertMapping(Map<String, String> resultMap, String sourcePath, String expectedTargetPath) {
         assertTrue(resultMap.containsKey(sourcePath), "源文件[" + sourcePath + "]未被扫描到");
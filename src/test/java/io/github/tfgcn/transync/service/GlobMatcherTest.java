@@ -0,0 +1,78 @@
+package io.github.tfgcn.transync.service;
+
+import io.github.tfgcn.transsync.service.GlobMatcher;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.FileSystems;
+import java.nio.file.PathMatcher;
+import java.nio.file.Paths;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * desc: glob 匹配测试
+ *
+ * @author yanmaoyuan
+ */
+class GlobMatcherTest {
+
+    private static final List<String> PATTERNS = List.of(
+            "*.json", "**.json", "**/*.json", "*/lang/en_us.json", "*/patchouli_books/**/en_us/**",
+            "{tfc,tfg}/lang/*.json", "[a-c]*/lang/?n_us.json", "[!a]*/**", "quests/chapter_\\[1\\].snbt",
+            "**/en_us/*", "a/b/c/d.json"
+    );
+
+    private static final List<String> PATHS = List.of(
+            "en_us.json", "tfc/lang/en_us.json", "tfg/lang/zh_cn.json", "ae2/lang/en_us.json", "ae2/lang/en_us.txt",
+            "create/lang/en_us.json", "tfc/patchouli_books/field_guide/en_us/entries/a.json", "quests/chapter_[1].snbt",
+            "quests/chapter_1.snbt", "a/b/c/d.json", "a/b/c/e/d.json", "bcd/lang/un_us.json", "x/en_us/y"
+    );
+
+    @Test
+    void testSameAsPathMatcher() {
+        for (String pattern : PATTERNS) {
+            PathMatcher expected = FileSystems.getDefault().getPathMatcher("glob:" + pattern);
+            GlobMatcher actual = new GlobMatcher(pattern, null);
+            for (String path : PATHS) {
+                Assertions.assertEquals(expected.matches(Paths.get(path)), actual.matches(path), pattern + " " + path);
+            }
+        }
+    }
+
+    @Test
+    void testPruning() {
+        for (String pattern : PATTERNS) {
+            GlobMatcher matcher = new GlobMatcher(pattern, null);
+            for (String path : PATHS) {
+                if (!matcher.matches(path)) {
+                    continue;
+                }
+                // 匹配的文件所在的每一层目录都不能被跳过
+                String[] names = path.split("/");
+                int state = matcher.start();
+                for (int i = 0; i < names.length - 1; i++) {
+                    state = matcher.enter(state, names[i]);
+                    Assertions.assertNotEquals(GlobMatcher.NONE, state, pattern + " " + path);
+                }
+            }
+        }
+
+        GlobMatcher matcher = new GlobMatcher("*/lang/en_us.json", null);
+        int mod = matcher.enter(matcher.start(), "tfc");
+        Assertions.assertNotEquals(GlobMatcher.NONE, matcher.enter(mod, "lang"));
+        Assertions.assertEquals(GlobMatcher.NONE, matcher.enter(mod, "textures"));
+        Assertions.assertEquals(GlobMatcher.NONE, matcher.enter(matcher.enter(mod, "lang"), "sub"));
+    }
+
+    @Test
+    void testIgnores() {
+        GlobMatcher matcher = new GlobMatcher("**.json", List.of("**/.git/**", "*.tmp", "build"));
+        Assertions.assertTrue(matcher.isIgnored("a/.git/config"));
+        Assertions.assertTrue(matcher.isIgnored("build"));
+        Assertions.assertFalse(matcher.isIgnored("a/build"));
+        Assertions.assertFalse(matcher.matches("a/.git/x.json"));
+        Assertions.assertTrue(matcher.matches("a/x.json"));
+        Assertions.assertFalse(new GlobMatcher("**", Collections.emptyList()).isIgnored(""));
+    }
+}
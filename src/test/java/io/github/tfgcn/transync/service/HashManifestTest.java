@@ -0,0 +1,77 @@
+package io.github.tfgcn.transync.service;
+
+import io.github.tfgcn.transsync.Constants;
+import io.github.tfgcn.transsync.service.HashManifest;
+import org.apache.commons.codec.digest.DigestUtils;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+
+/**
+ * desc: 文件摘要清单测试
+ *
+ * @author yanmaoyuan
+ */
+class HashManifestTest {
+
+    @TempDir
+    Path workspace;
+
+    @Test
+    void testReuseDigestWhenSizeAndMtimeMatch() throws IOException {
+        File file = writeFile("en_us.json", "{\"key\":\"Hello\"}", 1_600_000_000_000L);
+
+        HashManifest manifest = HashManifest.load(workspace);
+        Assertions.assertEquals(DigestUtils.md5Hex("{\"key\":\"Hello\"}"), manifest.md5Hex(file));
+        manifest.save();
+
+        // 相同大小、相同修改时间的内容变化无法被察觉，说明没有重新读取文件
+        writeFile("en_us.json", "{\"key\":\"World\"}", 1_600_000_000_000L);
+        HashManifest reloaded = HashManifest.load(workspace);
+        Assertions.assertEquals(DigestUtils.md5Hex("{\"key\":\"Hello\"}"), reloaded.md5Hex(file));
+    }
+
+    @Test
+    void testRecomputeDigestWhenMtimeChanged() throws IOException {
+        File file = writeFile("en_us.json", "{\"key\":\"Hello\"}", 1_600_000_000_000L);
+
+        HashManifest manifest = HashManifest.load(workspace);
+        manifest.md5Hex(file);
+        manifest.save();
+
+        writeFile("en_us.json", "{\"key\":\"World\"}", 1_600_000_001_000L);
+        HashManifest reloaded = HashManifest.load(workspace);
+        Assertions.assertEquals(DigestUtils.md5Hex("{\"key\":\"World\"}"), reloaded.md5Hex(file));
+    }
+
+    @Test
+    void testKeepPendingEntriesWhenSaveFailed() throws IOException {
+        File file = writeFile("en_us.json", "{\"key\":\"Hello\"}", 1_600_000_000_000L);
+
+        HashManifest manifest = HashManifest.load(workspace);
+        manifest.md5Hex(file);
+
+        // 临时文件的位置被目录占用，保存失败
+        Path temp = workspace.resolve(Constants.WORKSPACE_DATA_DIR).resolve(Constants.HASH_MANIFEST_FILE + ".tmp");
+        Files.createDirectories(temp);
+        Assertions.assertThrows(IOException.class, manifest::save);
+
+        Files.delete(temp);
+        manifest.save();
+        Assertions.assertTrue(Files.isRegularFile(workspace.resolve(Constants.WORKSPACE_DATA_DIR).resolve(Constants.HASH_MANIFEST_FILE)));
+    }
+
+    private File writeFile(String name, String content, long mtime) throws IOException {
+        Path path = workspace.resolve(name);
+        Files.write(path, content.getBytes(StandardCharsets.UTF_8));
+        Files.setLastModifiedTime(path, FileTime.fromMillis(mtime));
+        return path.toFile();
+    }
+}
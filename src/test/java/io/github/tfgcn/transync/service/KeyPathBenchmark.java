@@ -0,0 +1,125 @@
+package io.github.tfgcn.transync.service;
+
+import com.google.gson.reflect.TypeToken;
+import io.github.tfgcn.transsync.service.KeyPathTrie;
+import io.github.tfgcn.transsync.service.StreamingJson;
+import io.github.tfgcn.transsync.service.SyncService;
+import io.github.tfgcn.transsync.utils.JsonUtils;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * desc: 比较按字符串路径和按字典树节点处理一个 10000 词条文件时的内存分配
+ * <p>不属于单元测试，需要手动运行 main 方法。</p>
+ *
+ * @author yanmaoyuan
+ */
+public class KeyPathBenchmark {
+
+    private static final int QUESTS = 2500;// 每个任务 4 个词条
+    private static final int ROUNDS = 50;
+
+    private static final com.sun.management.ThreadMXBean THREADS = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    public static void main(String[] args) throws IOException {
+        String document = buildDocument();
+        List<String> keys = new ArrayList<>();
+        StreamingJson.flatten(new StringReader(document), (key, value) -> keys.add(key));
+        System.out.printf("keys: %d, document: %d chars%n", keys.size(), document.length());
+
+        // 上传：打平本地文件并按远程词条查找
+        measure("flatten, string keys", () -> {
+            Map<String, String> flat = new LinkedHashMap<>();
+            StreamingJson.flatten(new StringReader(document), flat::put);
+            int found = 0;
+            for (String key : keys) {
+                if (flat.get(key) != null) {
+                    found++;
+                }
+            }
+            return found;
+        });
+        measure("flatten, key path trie", () -> {
+            KeyPathTrie paths = new KeyPathTrie(keys.size());
+            int[] nodes = new int[keys.size()];
+            for (int i = 0; i < nodes.length; i++) {
+                nodes[i] = paths.add(keys.get(i));
+            }
+            String[] byNode = new String[paths.size()];
+            StreamingJson.flatten(new StringReader(document), paths, (value, node) -> byNode[node] = value);
+            int found = 0;
+            for (int node : nodes) {
+                if (byNode[node] != null) {
+                    found++;
+                }
+            }
+            return found;
+        });
+
+        // 下载：把译文合并进源文件
+        measure("merge, map tree", () -> {
+            Map<String, String> translated = new HashMap<>();
+            for (String key : keys) {
+                translated.put(key, key);
+            }
+            Map<String, Object> tree = JsonUtils.GSON.fromJson(document, new TypeToken<Map<String, Object>>() {}.getType());
+            SyncService.updateNestedStructure(tree, translated, null);
+            return JsonUtils.toJson(tree).length();
+        });
+        measure("merge, key path trie", () -> {
+            KeyPathTrie paths = new KeyPathTrie(keys.size());
+            String[] byNode = new String[keys.size() * 3];
+            for (String key : keys) {
+                byNode[paths.add(key)] = key;
+            }
+            StringWriter out = new StringWriter(document.length() * 2);
+            StreamingJson.merge(new StringReader(document), out, paths, node -> byNode[node]);
+            return out.getBuffer().length();
+        });
+    }
+
+    private static String buildDocument() {
+        StringBuilder sb = new StringBuilder("{\n  \"quests\": [\n");
+        for (int i = 0; i < QUESTS; i++) {
+            sb.append("    {\"id\": ").append(i)
+                    .append(", \"title\": \"Quest ").append(i)
+                    .append("\", \"subtitle\": \"Sub ").append(i)
+                    .append("\", \"description\": {\"text\": \"Text ").append(i)
+                    .append("\", \"hint\": \"Hint ").append(i)
+                    .append("\"}, \"icons\": [1, 2, 3]}");
+            sb.append(i + 1 < QUESTS ? ",\n" : "\n");
+        }
+        return sb.append("  ]\n}").toString();
+    }
+
+    private static void measure(String name, Task task) throws IOException {
+        // 预热
+        for (int i = 0; i < ROUNDS; i++) {
+            task.run();
+        }
+
+        long threadId = Thread.currentThread().getId();
+        long bytes = THREADS.getThreadAllocatedBytes(threadId);
+        long start = System.nanoTime();
+        int result = 0;
+        for (int i = 0; i < ROUNDS; i++) {
+            result += task.run();
+        }
+        long elapsed = System.nanoTime() - start;
+        bytes = THREADS.getThreadAllocatedBytes(threadId) - bytes;
+
+        System.out.printf("%-24s %,12d bytes/op %8.2f ms/op (%d)%n", name, bytes / ROUNDS, elapsed / 1e6 / ROUNDS, result);
+    }
+
+    private interface Task {
+        int run() throws IOException;
+    }
+}
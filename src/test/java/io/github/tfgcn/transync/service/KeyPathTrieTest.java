@@ -0,0 +1,48 @@
+package io.github.tfgcn.transync.service;
+
+import io.github.tfgcn.transsync.service.KeyPathTrie;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+/**
+ * desc:
+ *
+ * @author yanmaoyuan
+ */
+class KeyPathTrieTest {
+
+    @Test
+    void childTest() {
+        KeyPathTrie paths = new KeyPathTrie(2);
+        int text = paths.add("pages->12->text");
+        int title = paths.add("a->b->c");
+
+        int pages = paths.child(KeyPathTrie.ROOT, "pages");
+        Assertions.assertEquals(text, paths.child(paths.child(pages, 12), "text"));
+        Assertions.assertEquals(KeyPathTrie.NONE, paths.child(pages, 1));
+        Assertions.assertEquals(KeyPathTrie.NONE, paths.child(KeyPathTrie.NONE, "text"));
+
+        // 名称中含有分隔符时与拼接后的路径相同
+        Assertions.assertEquals(title, paths.child(paths.child(KeyPathTrie.ROOT, "a->b"), "c"));
+        Assertions.assertEquals(title, paths.find("a->b->c"));
+
+        // 顶层的空名称不增加层级
+        Assertions.assertEquals(KeyPathTrie.ROOT, paths.child(KeyPathTrie.ROOT, ""));
+        Assertions.assertEquals("pages->12->text", paths.keyOf(text));
+    }
+
+    @Test
+    void growTest() {
+        KeyPathTrie paths = new KeyPathTrie();
+        int[] nodes = new int[10000];
+        for (int i = 0; i < nodes.length; i++) {
+            nodes[i] = paths.add("quests->" + i + "->title");
+        }
+
+        int quests = paths.find("quests");
+        for (int i = 0; i < nodes.length; i++) {
+            Assertions.assertEquals(nodes[i], paths.child(paths.child(quests, i), "title"));
+            Assertions.assertEquals("quests->" + i + "->title", paths.keyOf(nodes[i]));
+        }
+    }
+}
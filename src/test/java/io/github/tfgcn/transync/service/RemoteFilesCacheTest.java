@@ -0,0 +1,39 @@
+package io.github.tfgcn.transync.service;
+
+import io.github.tfgcn.transsync.paratranz.model.files.FilesDto;
+import io.github.tfgcn.transsync.service.RemoteFilesCache;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.Collections;
+
+/**
+ * desc: 远程文件列表缓存测试
+ *
+ * @author yanmaoyuan
+ */
+class RemoteFilesCacheTest {
+
+    private static final Integer PROJECT_ID = -15950;
+    private static final long TTL = 60_000L;
+
+    @TempDir
+    Path workspace;
+
+    @Test
+    void testOutdatedByProjectChanges() {
+        FilesDto file = new FilesDto();
+        file.setName("zh_cn/a.json");
+        RemoteFilesCache.put(PROJECT_ID, workspace, Collections.singletonList(file), "15950:1");
+
+        Assertions.assertEquals(1, RemoteFilesCache.get(PROJECT_ID, workspace, TTL, "15950:1").size());
+        Assertions.assertEquals(1, RemoteFilesCache.get(PROJECT_ID, workspace, TTL, null).size());
+        // 在网站上修改词条后项目标记变化，缓存视为过期
+        Assertions.assertNull(RemoteFilesCache.get(PROJECT_ID, workspace, TTL, "15950:2"));
+
+        RemoteFilesCache.invalidate(PROJECT_ID, workspace);
+        Assertions.assertNull(RemoteFilesCache.get(PROJECT_ID, workspace, TTL, "15950:1"));
+    }
+}
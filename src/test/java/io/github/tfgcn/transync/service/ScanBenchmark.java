@@ -0,0 +1,151 @@
+package io.github.tfgcn.transync.service;
+
+import io.github.tfgcn.transsync.service.FileScanService;
+import io.github.tfgcn.transsync.service.ScanCache;
+import io.github.tfgcn.transsync.service.model.FileScanRequest;
+import org.apache.commons.io.FileUtils;
+
+import java.io.IOException;
+import java.nio.file.FileSystems;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * desc: 比较逐个文件匹配的遍历方式、按规则剪枝的并行遍历和使用扫描结果缓存的遍历，扫描一个约 20 万文件的模组资源目录
+ * <p>不属于单元测试，需要手动运行 main 方法。参数为测试目录，默认在临时目录中创建，运行结束后删除。</p>
+ *
+ * @author yanmaoyuan
+ */
+public class ScanBenchmark {
+
+    private static final int MODS = 400;
+    private static final int FILES_PER_FOLDER = 250;// 每个模组 2 个资源目录
+    private static final int ROUNDS = 5;
+
+    private static final String SOURCE_PATTERN = "assets/*/lang/en_us.json";
+    private static final List<String> IGNORES = List.of("**/.git/**");
+
+    public static void main(String[] args) throws IOException {
+        Path workspace = args.length > 0 ? Path.of(args[0]) : Files.createTempDirectory("scan-benchmark");
+        try {
+            int files = buildTree(workspace);
+            System.out.printf("files: %,d%n", files);
+
+            measure("walkFileTree + PathMatcher", () -> legacyScan(workspace));
+            FileScanRequest request = new FileScanRequest();
+            request.setWorkspace(workspace.toString());
+            request.setSourceFilePattern(SOURCE_PATTERN);
+            request.setTranslationFilePattern("%original_path_pre%/%language%.json");
+            request.setSrcLang("en_us");
+            request.setDestLang("zh_cn");
+            request.setIgnores(IGNORES);
+            measure("FileScanService", () -> new FileScanService().scanAndMapFiles(request).size());
+
+            // 每次重新加载缓存，模拟命令行再次启动
+            Path realPath = workspace.toRealPath();
+            try (Stream<Path> dirs = Files.walk(realPath)) {
+                // 刚修改的目录不会写入缓存
+                dirs.filter(Files::isDirectory).forEach(dir -> dir.toFile().setLastModified(System.currentTimeMillis() - 60_000));
+            }
+            measure("FileScanService, cached", () -> {
+                ScanCache cache = ScanCache.load(realPath);
+                FileScanService service = new FileScanService();
+                service.setScanCache(cache);
+                int size = service.scanAndMapFiles(List.of(request)).size();
+                cache.save();
+                return size;
+            });
+        } finally {
+            if (args.length == 0) {
+                FileUtils.deleteDirectory(workspace.toFile());
+            }
+        }
+    }
+
+    private static int buildTree(Path workspace) throws IOException {
+        int count = 0;
+        for (int mod = 0; mod < MODS; mod++) {
+            Path modDir = workspace.resolve("assets/mod" + mod);
+            Path lang = Files.createDirectories(modDir.resolve("lang"));
+            count += touch(lang.resolve("en_us.json")) + touch(lang.resolve("zh_cn.json"));
+
+            Path textures = Files.createDirectories(modDir.resolve("textures/block"));
+            Path models = Files.createDirectories(modDir.resolve("models/item"));
+            for (int i = 0; i < FILES_PER_FOLDER; i++) {
+                count += touch(textures.resolve("t" + i + ".png")) + touch(models.resolve("m" + i + ".json"));
+            }
+        }
+        return count;
+    }
+
+    private static int touch(Path file) throws IOException {
+        if (!Files.exists(file)) {
+            Files.createFile(file);
+        }
+        return 1;
+    }
+
+    /**
+     * 改动前的方式：单线程遍历整个根目录，每个文件都计算相对路径并逐条匹配
+     */
+    private static int legacyScan(Path workspace) throws IOException {
+        Path root = workspace.resolve("assets");
+        PathMatcher matcher = FileSystems.getDefault().getPathMatcher("glob:*/lang/en_us.json");
+        List<PathMatcher> ignores = new ArrayList<>();
+        for (String ignore : IGNORES) {
+            ignores.add(FileSystems.getDefault().getPathMatcher("glob:" + ignore));
+        }
+
+        List<Path> result = new ArrayList<>();
+        Files.walkFileTree(root, new SimpleFileVisitor<>() {
+            @Override
+            public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) {
+                Path relative = root.relativize(dir);
+                for (PathMatcher ignore : ignores) {
+                    if (ignore.matches(relative)) {
+                        return FileVisitResult.SKIP_SUBTREE;
+                    }
+                }
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+                Path relative = root.relativize(file);
+                for (PathMatcher ignore : ignores) {
+                    if (ignore.matches(relative)) {
+                        return FileVisitResult.CONTINUE;
+                    }
+                }
+                if (matcher.matches(relative)) {
+                    result.add(file);
+                }
+                return FileVisitResult.CONTINUE;
+            }
+        });
+        return result.size();
+    }
+
+    private static void measure(String name, Task task) throws IOException {
+        task.run();// 预热
+
+        long start = System.nanoTime();
+        int result = 0;
+        for (int i = 0; i < ROUNDS; i++) {
+            result = task.run();
+        }
+        long elapsed = System.nanoTime() - start;
+        System.out.printf("%-28s %8.1f ms/op (%d)%n", name, elapsed / 1e6 / ROUNDS, result);
+    }
+
+    private interface Task {
+        int run() throws IOException;
+    }
+}
@@ -0,0 +1,106 @@
+package io.github.tfgcn.transync.service;
+
+import io.github.tfgcn.transsync.service.FileScanService;
+import io.github.tfgcn.transsync.service.ScanCache;
+import io.github.tfgcn.transsync.service.model.FileScanRequest;
+import io.github.tfgcn.transsync.service.model.FileScanResult;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * desc: 扫描结果缓存测试
+ *
+ * @author yanmaoyuan
+ */
+class ScanCacheTest {
+
+    private static final FileTime OLD = FileTime.fromMillis(1_600_000_000_000L);
+
+    @TempDir
+    Path workspace;
+
+    @Test
+    void testReuseListingWhenMtimeMatches() throws IOException {
+        createFile("assets/tfc/lang/en_us.json");
+        createFile("assets/ae2/lang/en_us.json");
+        createFile("assets/ae2/textures/stone.png");
+        touchDirectories(OLD);
+
+        List<FileScanRequest> requests = List.of(request("assets/*/lang/en_us.json", List.of()));
+        Assertions.assertEquals(List.of("assets/ae2/lang/en_us.json", "assets/tfc/lang/en_us.json"), scan(requests));
+
+        // 目录修改时间未变化，新文件无法被察觉，说明没有重新列出目录
+        createFile("assets/create/lang/en_us.json");
+        Files.setLastModifiedTime(workspace.resolve("assets"), OLD);
+        Assertions.assertEquals(List.of("assets/ae2/lang/en_us.json", "assets/tfc/lang/en_us.json"), scan(requests));
+
+        // 目录修改时间变化后重新列出
+        Files.setLastModifiedTime(workspace.resolve("assets"), FileTime.fromMillis(1_600_000_001_000L));
+        Assertions.assertEquals(List.of("assets/ae2/lang/en_us.json", "assets/create/lang/en_us.json",
+                "assets/tfc/lang/en_us.json"), scan(requests));
+    }
+
+    @Test
+    void testRebuildWhenRulesChanged() throws IOException {
+        createFile("assets/tfc/lang/en_us.json");
+        createFile("assets/ae2/lang/en_us.json");
+        touchDirectories(OLD);
+
+        Assertions.assertEquals(List.of("assets/tfc/lang/en_us.json"),
+                scan(List.of(request("assets/*/lang/en_us.json", List.of("ae2/**")))));
+
+        // 忽略规则变化后，缓存中没有记录 ae2 目录的内容
+        Assertions.assertEquals(List.of("assets/ae2/lang/en_us.json", "assets/tfc/lang/en_us.json"),
+                scan(List.of(request("assets/*/lang/en_us.json", List.of()))));
+    }
+
+    /**
+     * 每次使用新的缓存实例，模拟命令行再次启动
+     */
+    private List<String> scan(List<FileScanRequest> requests) throws IOException {
+        ScanCache cache = ScanCache.load(workspace.toRealPath());
+        FileScanService service = new FileScanService();
+        service.setScanCache(cache);
+        List<FileScanResult> results = service.scanAndMapFiles(requests);
+        cache.save();
+
+        List<String> paths = results.stream().map(FileScanResult::getSourceFilePath).collect(Collectors.toCollection(ArrayList::new));
+        paths.sort(null);
+        return paths;
+    }
+
+    private FileScanRequest request(String sourcePattern, List<String> ignores) {
+        FileScanRequest request = new FileScanRequest();
+        request.setWorkspace(workspace.toString());
+        request.setSourceFilePattern(sourcePattern);
+        request.setTranslationFilePattern("%original_path_pre%/%language%.json");
+        request.setSrcLang("en_us");
+        request.setDestLang("zh_cn");
+        request.setIgnores(ignores);
+        return request;
+    }
+
+    private void createFile(String name) throws IOException {
+        Path path = workspace.resolve(name);
+        Files.createDirectories(path.getParent());
+        Files.createFile(path);
+    }
+
+    private void touchDirectories(FileTime time) throws IOException {
+        try (Stream<Path> stream = Files.walk(workspace.resolve("assets"))) {
+            for (Path dir : stream.filter(Files::isDirectory).collect(Collectors.toList())) {
+                Files.setLastModifiedTime(dir, time);
+            }
+        }
+    }
+}
@@ -0,0 +1,149 @@
+package io.github.tfgcn.transync.service;
+
+import io.github.tfgcn.transsync.service.FileScanService;
+import io.github.tfgcn.transsync.service.ScanIndex;
+import io.github.tfgcn.transsync.service.SyncService;
+import io.github.tfgcn.transsync.service.model.FileScanRequest;
+import io.github.tfgcn.transsync.service.model.FileScanResult;
+import io.github.tfgcn.transsync.service.model.FileScanRule;
+import org.apache.commons.codec.digest.DigestUtils;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static io.github.tfgcn.transsync.Constants.*;
+
+/**
+ * desc: 扫描索引测试
+ *
+ * @author yanmaoyuan
+ */
+class ScanIndexTest {
+
+    @TempDir
+    Path workspace;
+
+    @Test
+    void testFollowFileChanges() throws Exception {
+        writeFile("assets/tfc/lang/en_us.json", "{}");
+        writeFile("assets/tfc/lang/zh_cn.json", "{}");
+        writeFile("assets/tfc/textures/stone.png", "");
+
+        List<FileScanRequest> requests = List.of(request("assets/*/lang/en_us.json"));
+        FileScanService service = new FileScanService();
+        try (ScanIndex index = ScanIndex.open(service, requests)) {
+            Assertions.assertTrue(index.covers(List.of(request("assets/*/lang/en_us.json"))));
+            Assertions.assertEquals(List.of("assets/tfc/lang/en_us.json"), sourcePaths(index.getSourceFiles(false)));
+
+            // 新建的目录中已有文件
+            writeFile("assets/ae2/lang/en_us.json", "{\"a\":\"b\"}");
+            List<FileScanResult> changes = Assertions.assertTimeoutPreemptively(Duration.ofSeconds(30),
+                    () -> index.takeChanges(200));
+            Assertions.assertEquals(List.of("assets/ae2/lang/en_us.json"), sourcePaths(changes));
+            Assertions.assertEquals("assets/ae2/lang/zh_cn.json", changes.get(0).getTranslationFilePath());
+            Assertions.assertEquals(DigestUtils.md5Hex("{\"a\":\"b\"}"), changes.get(0).getMd5());
+
+            // 修改已有文件
+            writeFile("assets/tfc/lang/en_us.json", "{\"c\":\"d\"}");
+            changes = Assertions.assertTimeoutPreemptively(Duration.ofSeconds(30), () -> index.takeChanges(200));
+            Assertions.assertEquals(List.of("assets/tfc/lang/en_us.json"), sourcePaths(changes));
+            Assertions.assertEquals(DigestUtils.md5Hex("{\"c\":\"d\"}"), changes.get(0).getMd5());
+
+            // 删除文件
+            Files.delete(workspace.resolve("assets/ae2/lang/en_us.json"));
+            awaitSourceFiles(index, List.of("assets/tfc/lang/en_us.json"));
+
+            // 结果与重新扫描相同
+            Assertions.assertEquals(sourcePaths(service.scanAndMapFiles(requests)), sourcePaths(index.getSourceFiles(false)));
+        }
+    }
+
+    @Test
+    void testRefreshDigestWithoutWatchEvent() throws Exception {
+        writeFile("assets/tfc/lang/en_us.json", "{}");
+        Files.setLastModifiedTime(workspace.resolve("assets/tfc/lang/en_us.json"), FileTime.fromMillis(1_600_000_000_000L));
+
+        List<FileScanRequest> requests = List.of(request("assets/*/lang/en_us.json"));
+        try (ScanIndex index = ScanIndex.open(new FileScanService(), requests)) {
+            Assertions.assertEquals(DigestUtils.md5Hex("{}"), index.getSourceFiles(true).get(0).getMd5());
+
+            // 停止监听，模拟事件延迟或丢失；大小和修改时间变化后仍然重新计算
+            index.close();
+            writeFile("assets/tfc/lang/en_us.json", "{\"a\":\"b\"}");
+            Files.setLastModifiedTime(workspace.resolve("assets/tfc/lang/en_us.json"), FileTime.fromMillis(1_600_000_001_000L));
+            Assertions.assertEquals(DigestUtils.md5Hex("{\"a\":\"b\"}"), index.getSourceFiles(true).get(0).getMd5());
+        }
+    }
+
+    @Test
+    void testShareHashManifestWithLaterServices() throws Exception {
+        writeFile("assets/tfc/lang/en_us.json", "{}");
+        Files.setLastModifiedTime(workspace.resolve("assets/tfc/lang/en_us.json"), FileTime.fromMillis(1_600_000_000_000L));
+
+        SyncService first = syncService();
+        try (ScanIndex index = first.openScanIndex()) {
+            // 后续任务复用索引，索引中计算的摘要随后续任务保存
+            SyncService second = syncService();
+            second.setScanIndex(index);
+            Assertions.assertTrue(second.isScanIndexCurrent());
+            Assertions.assertEquals(DigestUtils.md5Hex("{}"), second.getSourceFiles(true).get(0).getMd5());
+            second.flush();
+        }
+
+        Path manifest = workspace.resolve(WORKSPACE_DATA_DIR).resolve(HASH_MANIFEST_FILE);
+        Assertions.assertTrue(Files.readString(manifest).contains("assets/tfc/lang/en_us.json"));
+    }
+
+    private SyncService syncService() throws IOException {
+        FileScanRule rule = new FileScanRule();
+        rule.setSourcePattern("assets/*/lang/en_us.json");
+        rule.setTranslationPattern("%original_path_pre%/%language%.json");
+        rule.setSrcLang("en_us");
+        rule.setDestLang("zh_cn");
+
+        SyncService service = new SyncService();
+        service.setWorkspace(workspace.toString());
+        service.setRules(List.of(rule));
+        return service;
+    }
+
+    private void awaitSourceFiles(ScanIndex index, List<String> expected) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 30_000;
+        while (!expected.equals(sourcePaths(index.getSourceFiles(false))) && System.currentTimeMillis() < deadline) {
+            Thread.sleep(50);
+        }
+        Assertions.assertEquals(expected, sourcePaths(index.getSourceFiles(false)));
+    }
+
+    private static List<String> sourcePaths(List<FileScanResult> results) {
+        List<String> paths = results.stream().map(FileScanResult::getSourceFilePath).collect(Collectors.toCollection(ArrayList::new));
+        paths.sort(null);
+        return paths;
+    }
+
+    private FileScanRequest request(String sourcePattern) {
+        FileScanRequest request = new FileScanRequest();
+        request.setWorkspace(workspace.toString());
+        request.setSourceFilePattern(sourcePattern);
+        request.setTranslationFilePattern("%original_path_pre%/%language%.json");
+        request.setSrcLang("en_us");
+        request.setDestLang("zh_cn");
+        return request;
+    }
+
+    private void writeFile(String name, String content) throws IOException {
+        Path path = workspace.resolve(name);
+        Files.createDirectories(path.getParent());
+        Files.write(path, content.getBytes(StandardCharsets.UTF_8));
+    }
+}
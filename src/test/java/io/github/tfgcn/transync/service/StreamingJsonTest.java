@@ -0,0 +1,90 @@
+package io.github.tfgcn.transync.service;
+
+import com.google.gson.reflect.TypeToken;
+import io.github.tfgcn.transsync.service.KeyPathTrie;
+import io.github.tfgcn.transsync.service.StreamingJson;
+import io.github.tfgcn.transsync.service.SyncService;
+import io.github.tfgcn.transsync.utils.JsonUtils;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * desc:
+ *
+ * @author yanmaoyuan
+ */
+class StreamingJsonTest {
+
+    private static final String DOCUMENT = "{\n" +
+            "    // comment\n" +
+            "    \"name\": \"Field Guide\",\n" +
+            "    \"count\": 3,\n" +
+            "    \"enabled\": true,\n" +
+            "    \"empty\": null,\n" +
+            "    \"\": \"empty key\",\n" +
+            "    \"pages\": [\n" +
+            "        {\"type\": \"text\", \"text\": \"Hello\", \"anchor\": 1.50},\n" +
+            "        \"plain string\",\n" +
+            "        [{\"title\": \"Nested\"}, \"x\"],\n" +
+            "        []\n" +
+            "    ],\n" +
+            "    \"category\": {\"a->b\": {\"c\": \"deep\"}, \"list\": [\"one\", \"two\"]}\n" +
+            "}";
+
+    @Test
+    void flattenTest() throws Exception {
+        Map<String, Object> tree = JsonUtils.GSON.fromJson(DOCUMENT, new TypeToken<Map<String, Object>>() {}.getType());
+        Map<String, String> expected = new LinkedHashMap<>();
+        SyncService.flattenNestedStructure(tree, expected, null);
+
+        Map<String, String> actual = new LinkedHashMap<>();
+        StreamingJson.flatten(new StringReader(DOCUMENT), actual::put);
+
+        Assertions.assertEquals(expected, actual);
+        Assertions.assertEquals(expected.keySet().toString(), actual.keySet().toString());
+        Assertions.assertEquals("Hello", actual.get("pages->0->text"));
+        Assertions.assertEquals("Nested", actual.get("pages->2->0->title"));
+        Assertions.assertEquals("deep", actual.get("category->a->b->c"));
+
+        // 只取字典树中已有的词条，结果与按字符串打平一致
+        KeyPathTrie paths = new KeyPathTrie();
+        for (String key : expected.keySet()) {
+            paths.add(key);
+        }
+        paths.add("missing->key");
+        Map<String, String> byNode = new LinkedHashMap<>();
+        StreamingJson.flatten(new StringReader(DOCUMENT), paths, (value, node) -> byNode.put(paths.keyOf(node), value));
+        Assertions.assertEquals(expected, byNode);
+    }
+
+    @Test
+    void mergeTest() throws Exception {
+        Map<String, String> translations = new HashMap<>();
+        translations.put("name", "野外指南");
+        translations.put("pages->0->text", "你好");
+        translations.put("pages->1", "纯文本");
+        translations.put("pages->2->0->title", "嵌套");
+        translations.put("category->list->1", "二");
+        translations.put("count", "3");
+
+        Map<String, Object> tree = JsonUtils.GSON.fromJson(DOCUMENT, new TypeToken<Map<String, Object>>() {}.getType());
+        SyncService.updateNestedStructure(tree, translations, null);
+        String expected = JsonUtils.toJson(tree);
+
+        StringWriter actual = new StringWriter();
+        KeyPathTrie paths = new KeyPathTrie();
+        for (String key : translations.keySet()) {
+            paths.add(key);
+        }
+        StreamingJson.merge(new StringReader(DOCUMENT), actual, paths, node -> translations.get(paths.keyOf(node)));
+
+        Assertions.assertEquals(expected, actual.toString());
+        Assertions.assertTrue(expected.contains("\"anchor\": 1.50"));
+    }
+}
@@ -0,0 +1,87 @@
+package io.github.tfgcn.transync.service;
+
+import io.github.tfgcn.transsync.service.SyncJournal;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * desc: 同步任务日志测试
+ *
+ * @author yanmaoyuan
+ */
+class SyncJournalTest {
+
+    @TempDir
+    Path workspace;
+
+    @Test
+    void testResumeSkipsCompletedFiles() throws IOException {
+        try (SyncJournal journal = SyncJournal.open(workspace, "test", false)) {
+            journal.record("a/zh_cn.json", "md5-a", "update");
+            journal.record("b/zh_cn.json", "md5-b", "skip");
+        }
+
+        try (SyncJournal journal = SyncJournal.open(workspace, "test", true)) {
+            Assertions.assertTrue(journal.isDone("a/zh_cn.json", "md5-a"));
+            Assertions.assertTrue(journal.isDone("b/zh_cn.json", "md5-b"));
+            // 文件内容变化后需要重新处理
+            Assertions.assertFalse(journal.isDone("a/zh_cn.json", "md5-a2"));
+            Assertions.assertFalse(journal.isDone("c/zh_cn.json", "md5-c"));
+        }
+
+        try (SyncJournal journal = SyncJournal.open(workspace, "test", false)) {
+            Assertions.assertFalse(journal.isDone("a/zh_cn.json", "md5-a"));
+        }
+    }
+
+    @Test
+    void testCompactKeepsLastRecord() throws IOException {
+        try (SyncJournal journal = SyncJournal.open(workspace, "test", false)) {
+            journal.record("a/zh_cn.json", "md5-a", "update");
+            journal.record("a/zh_cn.json", "md5-a2", "update");
+            journal.record("b/zh_cn.json", "md5-b", "skip");
+            journal.compact();
+        }
+
+        List<String> lines = Files.readAllLines(workspace.resolve(".transsync/journal/test.log"), StandardCharsets.UTF_8);
+        Assertions.assertEquals(List.of("a/zh_cn.json\tmd5-a2\tupdate", "b/zh_cn.json\tmd5-b\tskip"), lines);
+    }
+
+    @Test
+    void testFinishDeletesJournalWhenSucceeded() throws IOException {
+        try (SyncJournal journal = SyncJournal.open(workspace, "test", false)) {
+            journal.record("a/zh_cn.json", "md5-a", "update");
+            journal.finish(false);
+        }
+        try (SyncJournal journal = SyncJournal.open(workspace, "test", true)) {
+            Assertions.assertTrue(journal.isDone("a/zh_cn.json", "md5-a"));
+            journal.record("b/zh_cn.json", "md5-b", "update");
+            journal.finish(true);
+        }
+
+        // 全部完成后不再跳过任何文件
+        Assertions.assertFalse(Files.exists(workspace.resolve(".transsync/journal/test.log")));
+        try (SyncJournal journal = SyncJournal.open(workspace, "test", true)) {
+            Assertions.assertFalse(journal.isDone("a/zh_cn.json", "md5-a"));
+        }
+    }
+
+    @Test
+    void testIgnoreTruncatedRecord() throws IOException {
+        Path file = workspace.resolve(".transsync/journal/test.log");
+        Files.createDirectories(file.getParent());
+        Files.write(file, "a/zh_cn.json\tmd5-a\tupdate\nb/zh_cn.json\tmd5".getBytes(StandardCharsets.UTF_8));
+
+        try (SyncJournal journal = SyncJournal.open(workspace, "test", true)) {
+            Assertions.assertTrue(journal.isDone("a/zh_cn.json", "md5-a"));
+            Assertions.assertFalse(journal.isDone("b/zh_cn.json", "md5"));
+        }
+    }
+}
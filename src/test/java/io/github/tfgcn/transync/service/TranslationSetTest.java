@@ -0,0 +1,62 @@
+package io.github.tfgcn.transync.service;
+
+import io.github.tfgcn.transsync.paratranz.model.files.TranslationDto;
+import io.github.tfgcn.transsync.service.KeyPathTrie;
+import io.github.tfgcn.transsync.service.TranslationSet;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * desc: 词条集合测试
+ *
+ * @author yanmaoyuan
+ */
+class TranslationSetTest {
+
+    @Test
+    void testRoundTrip() {
+        List<TranslationDto> items = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            items.add(item(i, "quests->" + i + "->title", "Done", i % 2 == 0 ? "完成" : null, i % 2 == 0 ? 1 : 0));
+        }
+        items.get(3).setStage(null);
+        items.get(4).setContext("上下文");
+
+        TranslationSet set = new TranslationSet(4);
+        items.forEach(set::add);
+        Assertions.assertEquals(items, set.toList());
+        // 相同的原文只保留一份
+        Assertions.assertSame(set.getOriginal(0), set.getOriginal(99));
+    }
+
+    @Test
+    void testDuplicateKeys() {
+        TranslationSet set = new TranslationSet();
+        set.add(item(1, "a", "A", "甲", 1));
+        set.add(item(2, "b", "B", "乙", 0));
+        set.add(item(3, "a", "A2", "甲2", 1));
+        set.add(item(4, "c", "C", "丙", -1));
+
+        KeyPathTrie paths = set.getPaths();
+        Assertions.assertEquals(2, set.rowOf(paths.find("a")));
+        Assertions.assertEquals("甲2", set.getExportValue(paths.find("a")));
+        // 未翻译和隐藏的词条导出原文
+        Assertions.assertEquals("B", set.getExportValue(paths.find("b")));
+        Assertions.assertEquals("C", set.getExportValue(paths.find("c")));
+        Assertions.assertEquals(TranslationSet.NONE, set.rowOf(paths.find("d")));
+        Assertions.assertNull(set.getExportValue(paths.find("d")));
+    }
+
+    private static TranslationDto item(int id, String key, String original, String translation, Integer stage) {
+        TranslationDto item = new TranslationDto();
+        item.setId(id);
+        item.setKey(key);
+        item.setOriginal(original);
+        item.setTranslation(translation);
+        item.setStage(stage);
+        return item;
+    }
+}
@@ -0,0 +1,111 @@
+package io.github.tfgcn.transync.service;
+
+import io.github.tfgcn.transsync.paratranz.model.files.TranslationDto;
+import io.github.tfgcn.transsync.service.TranslationSet;
+import io.github.tfgcn.transsync.service.TranslationStore;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * desc: 本地译文库测试
+ *
+ * @author yanmaoyuan
+ */
+class TranslationStoreTest {
+
+    @TempDir
+    Path workspace;
+
+    @Test
+    void testSaveAndPatch() throws IOException {
+        List<TranslationDto> items = new ArrayList<>();
+        for (int i = 1; i <= 4; i++) {
+            items.add(item(i, "key" + i, "Hello " + i, null, 0));
+        }
+        items.get(0).setContext("上下文");
+
+        TranslationStore store = TranslationStore.open(workspace);
+        store.save(100, "1:remote", set(items));
+        Assertions.assertEquals(items, store.load(100, "1:remote").toList());
+        Assertions.assertNull(store.load(100, "2:remote"));
+        Assertions.assertNull(store.load(101, "1:remote"));
+
+        store.patch(100, Collections.singletonList(item(2, null, null, "你好 2", 1)));
+        List<TranslationDto> patched = TranslationStore.open(workspace).load(100, "1:remote").toList();
+        Assertions.assertEquals("你好 2", patched.get(1).getTranslation());
+        Assertions.assertEquals(1, patched.get(1).getStage());
+        Assertions.assertEquals("key2", patched.get(1).getKey());
+
+        // 译文为 null 的补丁只修改状态
+        store.patch(100, Collections.singletonList(item(2, null, null, null, 0)));
+        patched = store.load(100, "1:remote").toList();
+        Assertions.assertEquals("你好 2", patched.get(1).getTranslation());
+        Assertions.assertEquals(0, patched.get(1).getStage());
+    }
+
+    @Test
+    void testIgnoreTruncatedPatch() throws IOException {
+        TranslationStore store = TranslationStore.open(workspace);
+        store.save(100, "1:remote", set(Collections.singletonList(item(1, "key1", "Hello", null, 0))));
+        store.patch(100, Collections.singletonList(item(1, null, null, "你好", 1)));
+
+        // 模拟写入补丁时中断
+        Path file = workspace.resolve(".transsync/strings/100.bin");
+        Files.write(file, new byte[] {2, 0, 0}, StandardOpenOption.APPEND);
+
+        List<TranslationDto> loaded = store.load(100, "1:remote").toList();
+        Assertions.assertEquals("你好", loaded.get(0).getTranslation());
+
+        // 读取后已重写，之后追加的补丁仍然有效
+        store.patch(100, Collections.singletonList(item(1, null, null, "您好", 1)));
+        Assertions.assertEquals("您好", store.load(100, "1:remote").getTranslation(0));
+    }
+
+    @Test
+    void testUncommittedWriter() throws IOException {
+        TranslationStore store = TranslationStore.open(workspace);
+        store.save(100, "1:remote", set(Collections.singletonList(item(1, "key1", "Hello", null, 0))));
+
+        // 未提交的写入不影响已有的副本，也不留下临时文件
+        try (TranslationStore.SnapshotWriter writer = store.create(100, "2:remote")) {
+            writer.add(item(1, "key1", "Hello", "你好", 1));
+        }
+        Assertions.assertNotNull(store.load(100, "1:remote"));
+        try (Stream<Path> files = Files.list(workspace.resolve(".transsync/strings"))) {
+            Assertions.assertEquals(1, files.count());
+        }
+
+        try (TranslationStore.SnapshotWriter writer = store.create(100, "2:remote")) {
+            writer.add(item(1, "key1", "Hello", "你好", 1));
+            writer.add(item(2, "key2", "World", null, 0));
+            writer.commit();
+        }
+        Assertions.assertEquals(2, store.load(100, "2:remote").size());
+    }
+
+    private static TranslationSet set(List<TranslationDto> items) {
+        TranslationSet set = new TranslationSet();
+        items.forEach(set::add);
+        return set;
+    }
+
+    private static TranslationDto item(int id, String key, String original, String translation, int stage) {
+        TranslationDto item = new TranslationDto();
+        item.setId(id);
+        item.setKey(key);
+        item.setOriginal(original);
+        item.setTranslation(translation);
+        item.setStage(stage);
+        return item;
+    }
+}
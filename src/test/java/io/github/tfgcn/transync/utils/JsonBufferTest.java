@@ -0,0 +1,43 @@
+package io.github.tfgcn.transync.utils;
+
+import io.github.tfgcn.transsync.utils.JsonBuffer;
+import io.github.tfgcn.transsync.utils.JsonUtils;
+import org.apache.commons.codec.digest.DigestUtils;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * desc:
+ *
+ * @author yanmaoyuan
+ */
+class JsonBufferTest {
+
+    @Test
+    void serializeTest(@TempDir Path dir) throws Exception {
+        Map<String, String> map = new LinkedHashMap<>();
+        map.put("key", "值");
+        map.put("foo", "<bar>");
+        String expected = JsonUtils.toJson(map);
+
+        JsonBuffer buffer = JsonBuffer.serialize(map);
+        Assertions.assertEquals(expected.getBytes(StandardCharsets.UTF_8).length, buffer.size());
+        Assertions.assertEquals(DigestUtils.md5Hex(expected), buffer.md5Hex());
+
+        File file = dir.resolve("zh_cn.json").toFile();
+        buffer.writeTo(file);
+        Assertions.assertEquals(expected, Files.readString(file.toPath()));
+
+        // 缓冲区复用后，摘要应重新计算
+        map.put("key", "value");
+        Assertions.assertEquals(DigestUtils.md5Hex(JsonUtils.toJson(map)), JsonBuffer.serialize(map).md5Hex());
+    }
+}